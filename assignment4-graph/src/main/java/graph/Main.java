@@ -1,23 +1,26 @@
 package graph;
 
-import graph.common.Graph;
+import graph.common.CsrGraph;
 import graph.common.GraphLoader;
 import graph.common.Metrics;
+import graph.common.ResultWriters;
+import graph.scc.CondensationBuilder;
 import graph.scc.TarjanSCC;
 import graph.topo.TopologicalSort;
 import graph.dagsp.DAGShortestPath;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import graph.common.Graph.Edge;
+import graph.dagsp.PreparedDAG;
+import com.google.gson.stream.JsonWriter;
 
-import java.io.FileWriter;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Main {
+    /** Graphs parsed for JIT warmup; only this prefix of a dataset is held in memory. */
+    private static final int WARMUP_GRAPHS = 5;
     
     public static void main(String[] args) {
         try {
@@ -27,40 +30,51 @@ public class Main {
         }
     }
 
+    /**
+     * Flags: {@code --compact} writes JSON without indentation, {@code --gzip} compresses every
+     * output on the fly (files get a .gz suffix). Any other argument is a single graph file to analyze.
+     */
     private static void executeAnalysis(String[] args) throws IOException {
-        List<String[]> csvData = new ArrayList<>();
-        JsonArray sparseResults = new JsonArray();
-        JsonArray denseResults = new JsonArray();
+        boolean pretty = true;
+        boolean gzip = false;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            switch (arg) {
+                case "--compact": pretty = false; break;
+                case "--gzip": gzip = true; break;
+                default: files.add(arg);
+            }
+        }
 
         performWarmup();
 
-        // Try to process multi-graph datasets if they exist
-        processDataset("data/input_sparse.json", sparseResults, csvData);
-        processDataset("data/input_dense.json", denseResults, csvData);
-
-        // Fallback: process existing individual graph files
-        if (sparseResults.isEmpty() && denseResults.isEmpty()) {
-            System.out.println("Processing existing graph files from data/ directory...");
-            processExistingGraphFiles(sparseResults, denseResults, csvData, args);
-            System.out.println("Processed " + (sparseResults.size() + denseResults.size()) + " graphs");
+        ResultOutputs outputs = new ResultOutputs(pretty, gzip);
+        try {
+            // Try to process multi-graph datasets if they exist
+            processDataset("data/input_sparse.json", outputs, false);
+            processDataset("data/input_dense.json", outputs, true);
+
+            // Fallback: process existing individual graph files
+            if (outputs.getCount() == 0) {
+                System.out.println("Processing existing graph files from data/ directory...");
+                processExistingGraphFiles(outputs, files);
+                System.out.println("Processed " + outputs.getCount() + " graphs");
+            }
+        } finally {
+            outputs.close();
         }
 
-        // Export all results
-        System.out.println("Exporting results...");
-        exportResults(csvData, sparseResults, denseResults);
         System.out.println("Analysis complete! Results saved to:");
-        if (!csvData.isEmpty()) System.out.println("  - data/output.csv");
-        if (!sparseResults.isEmpty()) System.out.println("  - data/output_sparse.json");
-        if (!denseResults.isEmpty()) System.out.println("  - data/output_dense.json");
+        for (String path : outputs.getWrittenFiles()) {
+            System.out.println("  - " + path);
+        }
     }
 
-    private static void processExistingGraphFiles(JsonArray sparseResults, JsonArray denseResults, 
-                                                   List<String[]> csvData, String[] args) throws IOException {
+    private static void processExistingGraphFiles(ResultOutputs outputs, List<String> files) throws IOException {
         // If single file provided via args
-        if (args.length > 0) {
-            GraphLoader.GraphData graphData = GraphLoader.loadFromJson(args[0]);
-            JsonObject result = analyzeGraph(graphData, csvData);
-            sparseResults.add(result);
+        if (!files.isEmpty()) {
+            GraphLoader.GraphData graphData = GraphLoader.loadFromJson(files.get(0));
+            outputs.write(analyzeGraph(graphData), false);
             return;
         }
 
@@ -79,95 +93,103 @@ public class Main {
 
         int processed = 0;
         for (String filename : graphFiles) {
+            GraphLoader.GraphData graphData;
             try {
-                GraphLoader.GraphData graphData = GraphLoader.loadFromJson(filename);
-                System.out.println("Processing: " + filename);
-                JsonObject result = analyzeGraph(graphData, csvData);
-                processed++;
-                
-                // Categorize by filename
-                if (filename.contains("sparse") || filename.contains("_dag")) {
-                    sparseResults.add(result);
-                } else if (filename.contains("dense") || filename.contains("cycle")) {
-                    denseResults.add(result);
-                } else {
-                    sparseResults.add(result); // default
-                }
+                graphData = GraphLoader.loadFromJson(filename);
             } catch (IOException e) {
                 // Skip files that don't exist
                 continue;
             }
+            System.out.println("Processing: " + filename);
+            GraphAnalysis result = analyzeGraph(graphData);
+            processed++;
+
+            // Categorize by filename
+            if (filename.contains("sparse") || filename.contains("_dag")) {
+                outputs.write(result, false);
+            } else if (filename.contains("dense") || filename.contains("cycle")) {
+                outputs.write(result, true);
+            } else {
+                outputs.write(result, false); // default
+            }
         }
-        if (processed == 0 && args.length == 0) {
+        if (processed == 0) {
             System.out.println("No graph files found. Please provide a graph file as argument or ensure files exist in data/ directory.");
         }
     }
 
-    private static void processDataset(String filename, JsonArray results, List<String[]> csvData) {
+    private static void processDataset(String filename, ResultOutputs outputs, boolean dense) throws IOException {
+        GraphLoader.GraphIterator graphs;
         try {
-            List<GraphLoader.GraphData> graphs = GraphLoader.loadAllGraphs(filename);
-            System.out.println("Loading " + graphs.size() + " graphs from " + filename);
-            for (GraphLoader.GraphData graphData : graphs) {
-                JsonObject result = analyzeGraph(graphData, csvData);
-                results.add(result);
-            }
-        } catch (IOException e) {
-            // Silently skip - will use fallback
-        }
-    }
-
-    private static void exportResults(List<String[]> csvData, JsonArray sparseResults, JsonArray denseResults) throws IOException {
-        if (!csvData.isEmpty()) {
-            Metrics.writeCsv("data/output.csv", csvData.toArray(new String[0][]), false);
-        }
-        if (!sparseResults.isEmpty()) {
-            saveJsonFile("data/output_sparse.json", sparseResults);
+            graphs = GraphLoader.iterateGraphs(filename);
+        } catch (FileNotFoundException e) {
+            return; // Silently skip - will use fallback
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error: cannot read " + filename + ": " + e.getMessage());
+            return;
         }
-        if (!denseResults.isEmpty()) {
-            saveJsonFile("data/output_dense.json", denseResults);
+        // One graph is parsed, analyzed and written at a time; a read error is reported and ends
+        // the dataset (graphs before it are already written), write errors propagate
+        try (graphs) {
+            System.out.println("Loading graphs from " + filename);
+            int count = 0;
+            while (true) {
+                GraphLoader.GraphData graphData;
+                try {
+                    if (!graphs.hasNext()) break;
+                    graphData = graphs.next();
+                } catch (UncheckedIOException e) {
+                    System.err.println("Error: reading " + filename + " failed after " + count
+                            + " graphs: " + e.getCause().getMessage());
+                    return;
+                }
+                outputs.write(analyzeGraph(graphData), dense);
+                count++;
+            }
+            System.out.println("Processed " + count + " graphs from " + filename);
         }
     }
 
-    private static JsonObject analyzeGraph(GraphLoader.GraphData graphData, List<String[]> csvData) {
-        Graph graph = graphData.graph;
+    private static GraphAnalysis analyzeGraph(GraphLoader.GraphData graphData) {
+        CsrGraph csr = graphData.getCsr();
         GraphAnalysis analysis = new GraphAnalysis();
         analysis.graphId = graphData.getId();
-        analysis.graph = graph;
+        analysis.input = csr;
         analysis.graphData = graphData;
         analysis.sourceVertex = graphData.source;
 
         // Step 1: Find strongly connected components
         forceGarbageCollection();
-        TarjanSCC tarjan = new TarjanSCC(graph);
-        analysis.sccs = tarjan.findSCCs();
+        TarjanSCC tarjan = new TarjanSCC(csr);
+        analysis.components = tarjan.findComponents();
         analysis.tarjanMetrics = adaptMetrics(tarjan.getMetrics(), "Tarjan-SCC");
 
         // Step 2: Build condensation DAG
         forceGarbageCollection();
-        TarjanSCC.CondensationGraph condensation = tarjan.buildCondensation(analysis.sccs);
-        analysis.dag = condensation.graph;
+        CondensationBuilder condensation = new CondensationBuilder(csr, analysis.components);
+        analysis.dag = condensation.buildCsr();
+        if (graphData.isNodeWeighted()) {
+            analysis.dagNodeWeights = condensation.sumNodeWeights(graphData.durations);
+        }
 
-        // Step 3: Topological ordering
+        // Step 3: Topological ordering, computed once and shared by both path queries
         forceGarbageCollection();
-        TopologicalSort topoSort = new TopologicalSort(analysis.dag);
-        analysis.topoOrder = topoSort.sort();
-        analysis.topoMetrics = adaptMetrics(topoSort.getMetrics(), "Kahn-TS");
+        PreparedDAG prepared = new PreparedDAG(analysis.dag, analysis.dagNodeWeights);
+        analysis.topoOrder = prepared.getOrder();
+        analysis.topoMetrics = adaptMetrics(prepared.getTopoMetrics(), "Kahn-TS");
 
         // Step 4: Shortest paths computation
         forceGarbageCollection();
-        DAGShortestPath spSolver = new DAGShortestPath(analysis.dag);
-        int dagSource = condensation.vertexToSCC[analysis.sourceVertex];
-        analysis.spResult = spSolver.shortestPaths(dagSource);
-        analysis.spMetrics = adaptMetrics(spSolver.getMetrics(), "DAG-ShortestPath");
+        int dagSource = analysis.components.componentOf[analysis.sourceVertex];
+        analysis.spResult = prepared.shortestPaths(dagSource);
+        analysis.spMetrics = adaptMetrics(prepared.getMetrics(), "DAG-ShortestPath");
 
         // Step 5: Critical path (longest path)
         forceGarbageCollection();
-        DAGShortestPath lpSolver = new DAGShortestPath(analysis.dag);
-        analysis.cpResult = lpSolver.findCriticalPath();
-        analysis.lpMetrics = adaptMetrics(lpSolver.getMetrics(), "DAG-LongestPath");
+        analysis.cpResult = prepared.findCriticalPath();
+        analysis.lpMetrics = adaptMetrics(prepared.getMetrics(), "DAG-LongestPath");
 
-        appendCsvRow(csvData, analysis);
-        return serializeToJson(analysis);
+        return analysis;
     }
 
     private static Metrics adaptMetrics(graph.common.MetricsInterface oldMetrics, String algorithmName) {
@@ -213,45 +235,26 @@ public class Main {
 
     private static void performWarmup() {
         try {
-            // Try to load graphs for warmup
-            List<GraphLoader.GraphData> warmupGraphs = new ArrayList<>();
-            
-            // Try multi-graph format first
-            try {
-                warmupGraphs = GraphLoader.loadAllGraphs("data/input_dense.json");
-            } catch (IOException e) {
-                try {
-                    warmupGraphs = GraphLoader.loadAllGraphs("data/input_sparse.json");
-                } catch (IOException e2) {
-                    // Fallback to single graph files
-                    try {
-                        warmupGraphs.add(GraphLoader.loadFromJson("data/small_1_simple_dag.json"));
-                    } catch (IOException e3) {
-                        return; // No warmup graphs available
-                    }
-                }
+            List<GraphLoader.GraphData> warmupGraphs = loadWarmupGraphs();
+            if (warmupGraphs.isEmpty()) {
+                return; // No warmup graphs available
             }
 
             for (int iteration = 0; iteration < 3; iteration++) {
                 for (GraphLoader.GraphData gd : warmupGraphs) {
-                    Graph graph = gd.graph;
                     int source = gd.source;
             
-            TarjanSCC tarjan = new TarjanSCC(graph);
-            List<List<Integer>> sccs = tarjan.findSCCs();
-            
-                    TarjanSCC.CondensationGraph condensation = tarjan.buildCondensation(sccs);
-                    Graph dag = condensation.graph;
-
-                    TopologicalSort topoSort = new TopologicalSort(dag);
-                    topoSort.sort();
-
-                    DAGShortestPath shortestPath = new DAGShortestPath(dag);
-                    int dagSource = condensation.vertexToSCC[source];
-                    shortestPath.shortestPaths(dagSource);
-
-                    DAGShortestPath longestPath = new DAGShortestPath(dag);
-                    longestPath.findCriticalPath();
+                    CsrGraph csr = gd.getCsr();
+                    TarjanSCC tarjan = new TarjanSCC(csr);
+                    TarjanSCC.Components components = tarjan.findComponents();
+                    CondensationBuilder condensation = new CondensationBuilder(csr, components);
+                    CsrGraph dag = condensation.buildCsr();
+                    double[] nodeWeights = gd.isNodeWeighted() ? condensation.sumNodeWeights(gd.durations) : null;
+
+                    PreparedDAG prepared = new PreparedDAG(dag, nodeWeights);
+                    int dagSource = components.componentOf[source];
+                    prepared.shortestPaths(dagSource);
+                    prepared.findCriticalPath();
                 }
             }
         } catch (Exception e) {
@@ -259,11 +262,37 @@ public class Main {
         }
     }
 
-    private static void appendCsvRow(List<String[]> csvData, GraphAnalysis r) {
+    /**
+     * First few graphs of the dense dataset, else the sparse one, else a sample file. Only this
+     * bounded prefix is parsed, so warmup memory does not grow with the dataset.
+     */
+    private static List<GraphLoader.GraphData> loadWarmupGraphs() {
+        List<GraphLoader.GraphData> warmupGraphs = new ArrayList<>();
+        for (String filename : new String[]{"data/input_dense.json", "data/input_sparse.json"}) {
+            try (GraphLoader.GraphIterator graphs = GraphLoader.iterateGraphs(filename)) {
+                while (warmupGraphs.size() < WARMUP_GRAPHS && graphs.hasNext()) {
+                    warmupGraphs.add(graphs.next());
+                }
+            } catch (IOException | UncheckedIOException e) {
+                // Try the next dataset
+            }
+            if (!warmupGraphs.isEmpty()) {
+                return warmupGraphs;
+            }
+        }
+        try {
+            warmupGraphs.add(GraphLoader.loadFromJson("data/small_1_simple_dag.json"));
+        } catch (IOException e) {
+            // Nothing to warm up on
+        }
+        return warmupGraphs;
+    }
+
+    private static void writeCsvRows(ResultWriters.CsvResults csv, GraphAnalysis r) throws IOException {
         int id = r.graphId;
 
-        int vertices = r.graph.getN();
-        int edges = countEdges(r.graph);
+        int vertices = r.input.getN();
+        int edges = r.input.getEdgeCount();
 
         String density = r.graphData.getDensity();
         String variant = r.graphData.getVariant();
@@ -283,11 +312,10 @@ public class Main {
                 r.lpMetrics.getExecutionTimeMs();
 
         if (r.spResult != null) {
-            int dagSource = findDagSourceVertex(r);
-            List<Integer> spPath = extractPathFromResult(r.spResult, dagSource);
-            double spLength = computePathWeight(r.dag, spPath);
+            List<Integer> spPath = r.spResult.pathTo(r.spResult.farthestTarget);
+            double spLength = computePathWeight(r.dag, r.dagNodeWeights, spPath, r.spResult.predecessorEdges);
 
-            csvData.add(new String[]{
+            csv.writeRow(
                     String.valueOf(id),
                     String.valueOf(vertices),
                     String.valueOf(edges),
@@ -297,10 +325,10 @@ public class Main {
                     String.valueOf(spTotalOps),
                     String.format("%.2f", spLength),
                     String.format("%.3f", spTotalTime)
-            });
+            );
         }
 
-        csvData.add(new String[]{
+        csv.writeRow(
                 String.valueOf(id),
                 String.valueOf(vertices),
                 String.valueOf(edges),
@@ -310,96 +338,73 @@ public class Main {
                 String.valueOf(lpTotalOps),
                 String.format("%.2f", r.cpResult.length),
                 String.format("%.3f", lpTotalTime)
-        });
-    }
-
-    private static int findDagSourceVertex(GraphAnalysis r) {
-        // Find the source vertex in the DAG (from condensation)
-        for (int i = 0; i < r.sccs.size(); i++) {
-            if (r.sccs.get(i).contains(r.sourceVertex)) {
-                return i;
-            }
-        }
-        return 0;
-    }
-
-    private static int countEdges(Graph graph) {
-        int count = 0;
-        for (int i = 0; i < graph.getN(); i++) {
-            count += graph.getNeighbors(i).size();
-        }
-        return count;
+        );
     }
 
-    private static JsonObject serializeToJson(GraphAnalysis r) {
-        JsonObject graphJson = new JsonObject();
-        graphJson.addProperty("graph_id", r.graphId);
-
-        JsonObject inputStats = new JsonObject();
-        inputStats.addProperty("vertices", r.graph.getN());
-        inputStats.addProperty("edges", countEdges(r.graph));
-        inputStats.addProperty("density", r.graphData.getDensity());
-        inputStats.addProperty("variant", r.graphData.getVariant());
-        inputStats.addProperty("source", r.sourceVertex);
-        graphJson.add("input_stats", inputStats);
-
-        JsonObject tarjanJson = new JsonObject();
-        tarjanJson.addProperty("num_sccs", r.sccs.size());
-        JsonArray sccsArray = new JsonArray();
-        for (List<Integer> scc : r.sccs) {
-            JsonArray sccArray = new JsonArray();
-            for (Integer v : scc) sccArray.add(v);
-            sccsArray.add(sccArray);
+    /**
+     * Streams one graph's results; SCC members and the topological order go straight from the int arrays.
+     */
+    private static void writeJson(JsonWriter out, GraphAnalysis r) throws IOException {
+        out.beginObject();
+        out.name("graph_id").value(r.graphId);
+
+        out.name("input_stats").beginObject();
+        out.name("vertices").value(r.input.getN());
+        out.name("edges").value(r.input.getEdgeCount());
+        out.name("density").value(r.graphData.getDensity());
+        out.name("variant").value(r.graphData.getVariant());
+        out.name("source").value(r.sourceVertex);
+        out.endObject();
+
+        out.name("tarjan_scc").beginObject();
+        TarjanSCC.Components components = r.components;
+        out.name("num_sccs").value(components.count);
+        out.name("sccs").beginArray();
+        for (int c = 0; c < components.count; c++) {
+            ResultWriters.writeInts(out, components.members,
+                    components.memberOffsets[c], components.memberOffsets[c + 1]);
         }
-        tarjanJson.add("sccs", sccsArray);
-        tarjanJson.addProperty("operations_count", r.tarjanMetrics.getTotalOperations());
-        tarjanJson.addProperty("execution_time_ms", r.tarjanMetrics.getExecutionTimeMs());
-        graphJson.add("tarjan_scc", tarjanJson);
-
-        JsonObject condensationJson = new JsonObject();
-        condensationJson.addProperty("vertices", r.dag.getN());
-        condensationJson.addProperty("edges", countEdges(r.dag));
-        graphJson.add("condensation_graph", condensationJson);
-
-        JsonObject topoJson = new JsonObject();
-        JsonArray topoOrder = new JsonArray();
-        for (Integer v : r.topoOrder) topoOrder.add(v);
-        topoJson.add("topological_order", topoOrder);
-        topoJson.addProperty("operations_count", r.topoMetrics.getTotalOperations());
-        topoJson.addProperty("execution_time_ms", r.topoMetrics.getExecutionTimeMs());
-        graphJson.add("topological_sort", topoJson);
+        out.endArray();
+        out.name("operations_count").value(r.tarjanMetrics.getTotalOperations());
+        out.name("execution_time_ms").value(r.tarjanMetrics.getExecutionTimeMs());
+        out.endObject();
+
+        out.name("condensation_graph").beginObject();
+        out.name("vertices").value(r.dag.getN());
+        out.name("edges").value(r.dag.getEdgeCount());
+        out.endObject();
+
+        out.name("topological_sort").beginObject();
+        out.name("topological_order");
+        ResultWriters.writeInts(out, r.topoOrder, 0, r.topoOrder.length);
+        out.name("operations_count").value(r.topoMetrics.getTotalOperations());
+        out.name("execution_time_ms").value(r.topoMetrics.getExecutionTimeMs());
+        out.endObject();
 
         if (r.spResult != null) {
-            JsonObject spJson = new JsonObject();
-            spJson.addProperty("source", r.sourceVertex);
+            out.name("shortest_path").beginObject();
+            out.name("source").value(r.sourceVertex);
 
-            int dagSource = findDagSourceVertex(r);
-            List<Integer> spPath = extractPathFromResult(r.spResult, dagSource);
-            JsonArray spPathArray = new JsonArray();
-            for (Integer v : spPath) spPathArray.add(v);
-            spJson.add("path", spPathArray);
+            List<Integer> spPath = r.spResult.pathTo(r.spResult.farthestTarget);
+            out.name("path").beginArray();
+            for (int v : spPath) out.value(v);
+            out.endArray();
 
             double pathLength = 0;
-            JsonArray spEdges = new JsonArray();
+            out.name("edges").beginArray();
             for (int i = 0; i < spPath.size() - 1; i++) {
-                int u = spPath.get(i);
                 int v = spPath.get(i + 1);
-                for (Edge e : r.dag.getNeighbors(u)) {
-                    if (e.to == v) {
-                        JsonObject edgeObj = new JsonObject();
-                        edgeObj.addProperty("u", u);
-                        edgeObj.addProperty("v", v);
-                        edgeObj.addProperty("w", e.weight);
-                        spEdges.add(edgeObj);
-                        pathLength += e.weight;
-                        break;
-                    }
-                }
+                double w = r.dag.weight(r.spResult.predecessorEdges[v]);
+                writeEdge(out, spPath.get(i), v, w);
+                pathLength += w;
+            }
+            out.endArray();
+            if (r.dagNodeWeights != null) {
+                for (int v : spPath) pathLength += r.dagNodeWeights[v];
             }
-            spJson.add("edges", spEdges);
-            spJson.addProperty("path_length", pathLength);
-            spJson.addProperty("operations_count", r.spMetrics.getTotalOperations());
-            spJson.addProperty("execution_time_ms", r.spMetrics.getExecutionTimeMs());
+            out.name("path_length").value(pathLength);
+            out.name("operations_count").value(r.spMetrics.getTotalOperations());
+            out.name("execution_time_ms").value(r.spMetrics.getExecutionTimeMs());
 
             long totalOps = r.tarjanMetrics.getTotalOperations() +
                     r.topoMetrics.getTotalOperations() +
@@ -407,41 +412,29 @@ public class Main {
             double totalTime = r.tarjanMetrics.getExecutionTimeMs() +
                     r.topoMetrics.getExecutionTimeMs() +
                     r.spMetrics.getExecutionTimeMs();
-            spJson.addProperty("total_operations_count", totalOps);
-            spJson.addProperty("total_execution_time_ms", totalTime);
-
-            graphJson.add("shortest_path", spJson);
+            out.name("total_operations_count").value(totalOps);
+            out.name("total_execution_time_ms").value(totalTime);
+            out.endObject();
         }
 
-        JsonObject lpJson = new JsonObject();
-        lpJson.addProperty("critical_path_length", r.cpResult.length);
+        out.name("longest_path").beginObject();
+        out.name("critical_path_length").value(r.cpResult.length);
 
         List<Integer> cpPath = r.cpResult.path;
         if (cpPath != null) {
-            JsonArray cpArray = new JsonArray();
-            for (Integer v : cpPath) cpArray.add(v);
-            lpJson.add("critical_path", cpArray);
+            out.name("critical_path").beginArray();
+            for (int v : cpPath) out.value(v);
+            out.endArray();
 
-            JsonArray lpEdges = new JsonArray();
+            out.name("edges").beginArray();
             for (int i = 0; i < cpPath.size() - 1; i++) {
-                int u = cpPath.get(i);
-                int v = cpPath.get(i + 1);
-                for (Edge e : r.dag.getNeighbors(u)) {
-                    if (e.to == v) {
-                        JsonObject edgeObj = new JsonObject();
-                        edgeObj.addProperty("u", u);
-                        edgeObj.addProperty("v", v);
-                        edgeObj.addProperty("w", e.weight);
-                        lpEdges.add(edgeObj);
-                        break;
-                    }
-                }
+                writeEdge(out, cpPath.get(i), cpPath.get(i + 1), r.dag.weight(r.cpResult.edges[i]));
             }
-            lpJson.add("edges", lpEdges);
+            out.endArray();
         }
 
-        lpJson.addProperty("operations_count", r.lpMetrics.getTotalOperations());
-        lpJson.addProperty("execution_time_ms", r.lpMetrics.getExecutionTimeMs());
+        out.name("operations_count").value(r.lpMetrics.getTotalOperations());
+        out.name("execution_time_ms").value(r.lpMetrics.getExecutionTimeMs());
 
         long totalOps = r.tarjanMetrics.getTotalOperations() +
                 r.topoMetrics.getTotalOperations() +
@@ -449,71 +442,114 @@ public class Main {
         double totalTime = r.tarjanMetrics.getExecutionTimeMs() +
                 r.topoMetrics.getExecutionTimeMs() +
                 r.lpMetrics.getExecutionTimeMs();
-        lpJson.addProperty("total_operations_count", totalOps);
-        lpJson.addProperty("total_execution_time_ms", totalTime);
+        out.name("total_operations_count").value(totalOps);
+        out.name("total_execution_time_ms").value(totalTime);
+        out.endObject();
 
-        graphJson.add("longest_path", lpJson);
+        out.endObject();
+    }
+
+    private static void writeEdge(JsonWriter out, int u, int v, double w) throws IOException {
+        out.beginObject();
+        out.name("u").value(u);
+        out.name("v").value(v);
+        out.name("w").value(w);
+        out.endObject();
+    }
 
-        return graphJson;
+    private static double computePathWeight(CsrGraph dag, double[] nodeWeights, List<Integer> path,
+                                            int[] predecessorEdges) {
+        double length = 0;
+        for (int i = 1; i < path.size(); i++) {
+            length += dag.weight(predecessorEdges[path.get(i)]);
+        }
+        if (nodeWeights != null) {
+            for (int v : path) length += nodeWeights[v];
+        }
+        return length;
     }
 
-    private static List<Integer> extractPathFromResult(DAGShortestPath.PathResult pathResult, int source) {
-        List<Integer> path = new ArrayList<>();
-        double[] distances = pathResult.distances;
-        int[] parent = pathResult.predecessors;
+    /**
+     * Output files, opened when their first result arrives so empty categories leave no file.
+     */
+    private static class ResultOutputs implements Closeable {
+        private static final String SPARSE_PATH = "data/output_sparse.json";
+        private static final String DENSE_PATH = "data/output_dense.json";
+        private static final String CSV_PATH = "data/output.csv";
+
+        private final boolean pretty;
+        private final boolean gzip;
+        private ResultWriters.JsonResults sparse;
+        private ResultWriters.JsonResults dense;
+        private ResultWriters.CsvResults csv;
+        private final List<String> writtenFiles = new ArrayList<>();
+        private int count = 0;
+
+        ResultOutputs(boolean pretty, boolean gzip) {
+            this.pretty = pretty;
+            this.gzip = gzip;
+        }
 
-        for (int i = 0; i < distances.length; i++) {
-            if (distances[i] != Double.POSITIVE_INFINITY && distances[i] != 0) {
-                List<Integer> toVertex = new ArrayList<>();
-                for (int v = i; v != -1; v = parent[v]) {
-                    toVertex.add(v);
-                }
-                java.util.Collections.reverse(toVertex);
-                if (toVertex.size() > path.size()) {
-                    path = toVertex;
-                }
+        void write(GraphAnalysis analysis, boolean toDense) throws IOException {
+            if (csv == null) {
+                csv = new ResultWriters.CsvResults(path(CSV_PATH), gzip);
+            }
+            writeCsvRows(csv, analysis);
+            csv.flush();
+
+            ResultWriters.JsonResults json;
+            if (toDense) {
+                if (dense == null) dense = new ResultWriters.JsonResults(path(DENSE_PATH), pretty, gzip);
+                json = dense;
+            } else {
+                if (sparse == null) sparse = new ResultWriters.JsonResults(path(SPARSE_PATH), pretty, gzip);
+                json = sparse;
             }
+            writeJson(json.result(), analysis);
+            json.endResult();
+            count++;
         }
 
-        if (path.isEmpty()) {
-            path.add(source);
+        int getCount() {
+            return count;
         }
 
-        return path;
-    }
+        List<String> getWrittenFiles() {
+            return writtenFiles;
+        }
 
-    private static double computePathWeight(Graph dag, List<Integer> path) {
-        double length = 0;
-        for (int i = 0; i < path.size() - 1; i++) {
-            int u = path.get(i);
-            int v = path.get(i + 1);
-            for (Edge e : dag.getNeighbors(u)) {
-                if (e.to == v) {
-                    length += e.weight;
-                    break;
-                }
-            }
+        private String path(String base) {
+            String path = gzip ? base + ".gz" : base;
+            writtenFiles.add(path);
+            return path;
         }
-        return length;
-    }
 
-    private static void saveJsonFile(String filepath, JsonArray results) throws IOException {
-        JsonObject root = new JsonObject();
-        root.add("results", results);
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try (FileWriter writer = new FileWriter(filepath)) {
-            gson.toJson(root, writer);
+        @Override
+        public void close() throws IOException {
+            // Closing finishes the JSON documents; keep going so one failure does not truncate the others
+            Exception failure = null;
+            for (Closeable writer : new Closeable[]{csv, sparse, dense}) {
+                if (writer == null) continue;
+                try {
+                    writer.close();
+                } catch (IOException | RuntimeException e) {
+                    if (failure == null) failure = e;
+                }
+            }
+            if (failure instanceof IOException) throw (IOException) failure;
+            if (failure != null) throw (RuntimeException) failure;
         }
     }
 
     private static class GraphAnalysis {
         int graphId;
-        Graph graph;
+        CsrGraph input;
         GraphLoader.GraphData graphData;
         int sourceVertex;
-        List<List<Integer>> sccs;
-        Graph dag;
-        List<Integer> topoOrder;
+        TarjanSCC.Components components;
+        CsrGraph dag;
+        double[] dagNodeWeights;
+        int[] topoOrder;
         DAGShortestPath.PathResult spResult;
         DAGShortestPath.CriticalPathResult cpResult;
         Metrics tarjanMetrics;
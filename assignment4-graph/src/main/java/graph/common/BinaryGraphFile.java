@@ -0,0 +1,365 @@
+package graph.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary CSR graph file, little-endian, loadable with {@link FileChannel#map} and no parsing.
+ *
+ * <pre>
+ * header   magic "GRPH", version, n, m, flags (bit 0 directed, bit 1 durations), source, id,
+ *          then weight model, density and variant as length-prefixed UTF-8
+ * offsets  (n + 1) ints, starting on an 8-byte boundary
+ * targets  m ints
+ * weights  m doubles, starting on an 8-byte boundary
+ * durations n doubles, only when flag bit 1 is set
+ * </pre>
+ */
+public final class BinaryGraphFile {
+    private static final int MAGIC = 0x48505247; // "GRPH" read little-endian
+    private static final int VERSION = 1;
+    private static final int FLAG_DIRECTED = 1;
+    private static final int FLAG_DURATIONS = 2;
+    private static final int CHUNK = 1 << 16;
+    // Three strings of at most 1024 bytes after the fixed fields, plus padding
+    private static final int MAX_HEADER = 28 + 3 * (4 + 1024) + 8;
+    private static final int PAGE_BYTES = 1 << 30;
+
+    private BinaryGraphFile() {
+    }
+
+    public static void write(String filename, GraphLoader.GraphData data) throws IOException {
+        write(filename, data.getCsr(), data.getId(), data.source, data.weightModel,
+                data.getDensity(), data.getVariant(), data.durations);
+    }
+
+    public static void write(String filename, Graph graph) throws IOException {
+        write(filename, CsrGraph.fromGraph(graph), 0, 0, "edge", "unknown", "unknown", null);
+    }
+
+    public static void write(String filename, CsrGraph graph, int id, int source, String weightModel,
+                             String density, String variant, double[] durations) throws IOException {
+        int n = graph.getN();
+        int m = graph.getEdgeCount();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m);
+            int flags = (graph.isDirected() ? FLAG_DIRECTED : 0) | (durations != null ? FLAG_DURATIONS : 0);
+            buffer.putInt(flags).putInt(source).putInt(id);
+            putString(buffer, weightModel);
+            putString(buffer, density);
+            putString(buffer, variant);
+            pad(buffer);
+
+            long position = buffer.position();
+            for (int u = 0; u <= n; u++) {
+                buffer = ensure(channel, buffer, 4);
+                buffer.putInt(u < n ? graph.edgeStart(u) : m);
+                position += 4;
+            }
+            for (int e = 0; e < m; e++) {
+                buffer = ensure(channel, buffer, 4);
+                buffer.putInt(graph.target(e));
+                position += 4;
+            }
+            if (position % 8 != 0) {
+                buffer = ensure(channel, buffer, 4);
+                buffer.putInt(0);
+            }
+            for (int e = 0; e < m; e++) {
+                buffer = ensure(channel, buffer, 8);
+                buffer.putDouble(graph.weight(e));
+            }
+            if (durations != null) {
+                for (double d : durations) {
+                    buffer = ensure(channel, buffer, 8);
+                    buffer.putDouble(d);
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #write}. Every section is mapped on its own, in pages of at most
+     * 1 GB, so files and sections larger than 2 GB work; nothing is copied until {@link MappedGraph#toCsr()}.
+     */
+    public static MappedGraph map(String filename) throws IOException {
+        return map(filename, PAGE_BYTES);
+    }
+
+    /**
+     * @param pageBytes bytes per mapped page, a power of two of at least 8
+     */
+    static MappedGraph map(String filename, int pageBytes) throws IOException {
+        if (pageBytes < 8 || Integer.bitCount(pageBytes) != 1) {
+            throw new IllegalArgumentException("Page size must be a power of two of at least 8: " + pageBytes);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            // Mappings stay valid after the channel is closed
+            return new MappedGraph(channel, filename, pageBytes);
+        }
+    }
+
+    /**
+     * Read-only graph backed by a mapped file, with the accessors of {@link CsrGraph}.
+     * The algorithms run on {@link CsrGraph}, so {@link #toCsr()} copies the sections onto the heap
+     * page by page; the accessors read the mapping directly, for inspecting or streaming a graph
+     * without loading it.
+     */
+    public static final class MappedGraph {
+        private final int n;
+        private final int m;
+        private final boolean directed;
+        private final int source;
+        private final int id;
+        private final String weightModel;
+        private final String density;
+        private final String variant;
+        private final int intShift;
+        private final int doubleShift;
+        private final IntBuffer[] offsets;
+        private final IntBuffer[] targets;
+        private final DoubleBuffer[] weights;
+        private final DoubleBuffer[] durations;
+
+        private MappedGraph(FileChannel channel, String filename, int pageBytes) throws IOException {
+            long size = channel.size();
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_HEADER))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.remaining() < 28 || header.getInt() != MAGIC) {
+                throw new IOException("Not a binary graph file: " + filename);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary graph version: " + version);
+            }
+            this.n = header.getInt();
+            this.m = header.getInt();
+            int flags = header.getInt();
+            this.directed = (flags & FLAG_DIRECTED) != 0;
+            this.source = header.getInt();
+            this.id = header.getInt();
+            this.weightModel = getString(header);
+            this.density = getString(header);
+            this.variant = getString(header);
+            skipPad(header);
+
+            long offsetsAt = header.position();
+            long targetsAt = offsetsAt + 4L * (n + 1);
+            long weightsAt = targetsAt + 4L * m;
+            weightsAt += weightsAt % 8;
+            long durationsAt = weightsAt + 8L * m;
+            long expected = durationsAt + ((flags & FLAG_DURATIONS) != 0 ? 8L * n : 0);
+            if (n < 0 || m < 0 || expected != size) {
+                throw new IOException("Truncated or corrupt binary graph file: " + filename);
+            }
+
+            this.intShift = Integer.numberOfTrailingZeros(pageBytes / 4);
+            this.doubleShift = Integer.numberOfTrailingZeros(pageBytes / 8);
+            this.offsets = asInts(mapPages(channel, offsetsAt, 4L * (n + 1), pageBytes));
+            this.targets = asInts(mapPages(channel, targetsAt, 4L * m, pageBytes));
+            this.weights = asDoubles(mapPages(channel, weightsAt, 8L * m, pageBytes));
+            this.durations = (flags & FLAG_DURATIONS) != 0
+                    ? asDoubles(mapPages(channel, durationsAt, 8L * n, pageBytes)) : null;
+        }
+
+        public int getN() {
+            return n;
+        }
+
+        public int getEdgeCount() {
+            return m;
+        }
+
+        public boolean isDirected() {
+            return directed;
+        }
+
+        public int edgeStart(int u) {
+            return offsets[u >>> intShift].get(u & ((1 << intShift) - 1));
+        }
+
+        public int edgeEnd(int u) {
+            return edgeStart(u + 1);
+        }
+
+        public int target(int edge) {
+            return targets[edge >>> intShift].get(edge & ((1 << intShift) - 1));
+        }
+
+        public double weight(int edge) {
+            return weights[edge >>> doubleShift].get(edge & ((1 << doubleShift) - 1));
+        }
+
+        public int getSource() {
+            return source;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getWeightModel() {
+            return weightModel;
+        }
+
+        public String getDensity() {
+            return density;
+        }
+
+        public String getVariant() {
+            return variant;
+        }
+
+        public double[] getDurations() {
+            if (durations == null) {
+                return null;
+            }
+            double[] copy = new double[n];
+            copyPages(durations, copy);
+            return copy;
+        }
+
+        public CsrGraph toCsr() {
+            int[] offsetArray = new int[n + 1];
+            int[] targetArray = new int[m];
+            double[] weightArray = new double[m];
+            copyPages(offsets, offsetArray);
+            copyPages(targets, targetArray);
+            copyPages(weights, weightArray);
+            return new CsrGraph(n, directed, offsetArray, targetArray, weightArray);
+        }
+
+        public GraphLoader.GraphData toGraphData() {
+            return new GraphLoader.GraphData(id, toCsr(), source, weightModel, density, variant, getDurations());
+        }
+    }
+
+    /**
+     * Converts a JSON graph file (single graph or {"graphs": [...]}) to binary files.
+     * With several graphs, the index is inserted before the output extension.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BinaryGraphFile <input.json> <output.bin>");
+            System.exit(1);
+        }
+        String output = args[1];
+        int dot = output.lastIndexOf('.');
+        String base = dot > 0 ? output.substring(0, dot) : output;
+        String extension = dot > 0 ? output.substring(dot) : "";
+
+        int count = 0;
+        try (GraphLoader.GraphIterator graphs = GraphLoader.iterateGraphs(args[0])) {
+            while (graphs.hasNext()) {
+                GraphLoader.GraphData data = graphs.next();
+                String target = count == 0 && !graphs.hasNext() ? output : base + "-" + count + extension;
+                write(target, data);
+                System.out.println("Wrote " + target + " (n=" + data.getCsr().getN()
+                        + ", m=" + data.getCsr().getEdgeCount() + ")");
+                count++;
+            }
+        }
+    }
+
+    private static ByteBuffer ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void putString(ByteBuffer buffer, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 1024) {
+            throw new IOException("Header string too long: " + bytes.length + " UTF-8 bytes");
+        }
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt binary graph header");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void pad(ByteBuffer buffer) {
+        while (buffer.position() % 8 != 0) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static void skipPad(ByteBuffer buffer) {
+        buffer.position((buffer.position() + 7) & ~7);
+    }
+
+    /**
+     * Maps [position, position + bytes) as consecutive little-endian pages of pageBytes each.
+     */
+    private static ByteBuffer[] mapPages(FileChannel channel, long position, long bytes, int pageBytes)
+            throws IOException {
+        ByteBuffer[] pages = new ByteBuffer[(int) Math.max((bytes + pageBytes - 1) / pageBytes, 1)];
+        for (int i = 0; i < pages.length; i++) {
+            long start = (long) i * pageBytes;
+            long length = Math.max(Math.min(pageBytes, bytes - start), 0);
+            pages[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + start, length)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return pages;
+    }
+
+    private static IntBuffer[] asInts(ByteBuffer[] pages) {
+        IntBuffer[] views = new IntBuffer[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            views[i] = pages[i].asIntBuffer();
+        }
+        return views;
+    }
+
+    private static DoubleBuffer[] asDoubles(ByteBuffer[] pages) {
+        DoubleBuffer[] views = new DoubleBuffer[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            views[i] = pages[i].asDoubleBuffer();
+        }
+        return views;
+    }
+
+    private static void copyPages(IntBuffer[] pages, int[] target) {
+        int at = 0;
+        for (IntBuffer page : pages) {
+            int length = page.remaining();
+            page.duplicate().get(target, at, length);
+            at += length;
+        }
+    }
+
+    private static void copyPages(DoubleBuffer[] pages, double[] target) {
+        int at = 0;
+        for (DoubleBuffer page : pages) {
+            int length = page.remaining();
+            page.duplicate().get(target, at, length);
+            at += length;
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package graph.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads edge lists ({@code u v [w]} per line, separated by whitespace or commas, weight 1 when
+ * omitted, extra columns ignored) straight into CSR. Lines starting with '#' or '%' and blank lines
+ * are skipped; a first data line holding a single integer gives n, otherwise n is the largest
+ * vertex id + 1.
+ *
+ * The file is memory-mapped in chunks cut at line boundaries, the chunks are parsed in parallel
+ * with a byte-level number parser, and the per-chunk edges are merged in file order, so the result
+ * equals adding the edges one by one to a {@link CsrGraph.Builder}.
+ */
+public final class EdgeListLoader {
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 24;
+    /** Edges a chunk starts with; buffers grow by half and are trimmed once the chunk is parsed. */
+    private static final int INITIAL_CHUNK_EDGES = 1 << 10;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private EdgeListLoader() {
+    }
+
+    public static CsrGraph load(String filename, boolean directed) throws IOException {
+        return load(filename, directed, ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+    }
+
+    public static CsrGraph load(String filename, boolean directed, ForkJoinPool pool, int chunkBytes)
+            throws IOException {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        Chunk[] chunks;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long[] bounds = lineBoundaries(channel, chunkBytes);
+            chunks = new Chunk[bounds.length - 1];
+            try {
+                ParallelRange.forEach(pool, 0, chunks.length, 1, (from, to) -> {
+                    for (int c = from; c < to; c++) {
+                        chunks[c] = parse(channel, bounds[c], bounds[c + 1]);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return merge(chunks, directed, pool);
+    }
+
+    /**
+     * Chunk starts: every multiple of {@code chunkBytes}, moved forward to the start of the next line.
+     */
+    private static long[] lineBoundaries(FileChannel channel, int chunkBytes) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[(int) ((size + chunkBytes - 1) / chunkBytes) + 2];
+        int count = 1;
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        long position = chunkBytes;
+        while (position < size) {
+            long lineStart = nextLineStart(channel, position - 1, window);
+            if (lineStart >= size) {
+                break;
+            }
+            bounds[count++] = lineStart;
+            position = Math.max(lineStart, position) + chunkBytes;
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer window) throws IOException {
+        while (true) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ChunkParser(buffer, start).run();
+    }
+
+    /**
+     * Stable counting sort of all chunks into CSR. Chunks are split into groups that each keep
+     * one cursor per vertex and scatter in parallel; groups are only used while the cursors take
+     * no more memory than the edges, otherwise a single group scatters sequentially.
+     */
+    private static CsrGraph merge(Chunk[] chunks, boolean directed, ForkJoinPool pool) {
+        // Only the first data line of the file may be a header; chunks cannot know that on their own
+        int headerN = -1;
+        boolean seenData = false;
+        int maxVertex = -1;
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.leadingN >= 0) {
+                if (seenData) {
+                    throw new IllegalArgumentException("Edge needs two vertices at byte " + chunk.leadingOffset);
+                }
+                headerN = chunk.leadingN;
+            }
+            seenData |= chunk.hasData;
+            maxVertex = Math.max(maxVertex, chunk.maxVertex);
+            total += chunk.size;
+        }
+        int n = headerN >= 0 ? headerN : maxVertex + 1;
+        if (n <= 0) {
+            throw new IllegalArgumentException("Vertices must be > 0");
+        }
+        if (maxVertex >= n) {
+            throw new IllegalArgumentException("Edge vertex out of bounds");
+        }
+        long m = directed ? total : 2 * total;
+        if (m > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many edges for CSR: " + m);
+        }
+
+        int groups = (int) Math.max(1, Math.min(chunks.length, m / n));
+        int[][] cursors = new int[groups][];
+        ParallelRange.forEach(pool, 0, groups, 1, (from, to) -> {
+            for (int g = from; g < to; g++) {
+                int[] degree = new int[n];
+                int last = groupStart(g + 1, groups, chunks.length);
+                for (int c = groupStart(g, groups, chunks.length); c < last; c++) {
+                    Chunk chunk = chunks[c];
+                    for (int i = 0; i < chunk.size; i++) {
+                        degree[chunk.from[i]]++;
+                        if (!directed) {
+                            degree[chunk.to[i]]++;
+                        }
+                    }
+                }
+                cursors[g] = degree;
+            }
+        });
+
+        // Turn the per-group degrees into per-group write cursors
+        int[] offsets = new int[n + 1];
+        int running = 0;
+        for (int v = 0; v < n; v++) {
+            offsets[v] = running;
+            for (int g = 0; g < groups; g++) {
+                int degree = cursors[g][v];
+                cursors[g][v] = running;
+                running += degree;
+            }
+        }
+        offsets[n] = running;
+
+        int[] targets = new int[(int) m];
+        double[] weights = new double[(int) m];
+        ParallelRange.forEach(pool, 0, groups, 1, (from, to) -> {
+            for (int g = from; g < to; g++) {
+                int[] cursor = cursors[g];
+                int last = groupStart(g + 1, groups, chunks.length);
+                for (int c = groupStart(g, groups, chunks.length); c < last; c++) {
+                    Chunk chunk = chunks[c];
+                    for (int i = 0; i < chunk.size; i++) {
+                        int u = chunk.from[i];
+                        int v = chunk.to[i];
+                        int slot = cursor[u]++;
+                        targets[slot] = v;
+                        weights[slot] = chunk.w[i];
+                        if (!directed) {
+                            slot = cursor[v]++;
+                            targets[slot] = u;
+                            weights[slot] = chunk.w[i];
+                        }
+                    }
+                }
+            }
+        });
+        return new CsrGraph(n, directed, offsets, targets, weights);
+    }
+
+    private static int groupStart(int group, int groups, int chunks) {
+        return (int) ((long) group * chunks / groups);
+    }
+
+    /**
+     * Eisel-Lemire: the correctly rounded double nearest mantissa * 10^exp10, or NaN when the
+     * 128-bit product cannot decide the rounding (the caller then parses the text exactly).
+     * Follows Lemire, "Number Parsing at a Gigabyte per Second" (2021), with truncated tables.
+     */
+    static double eiselLemire(long mantissa, int exp10, boolean negative) {
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (exp10 < Pow10Table.MIN_EXP10 || exp10 > Pow10Table.MAX_EXP10) {
+            return Double.NaN;
+        }
+        int clz = Long.numberOfLeadingZeros(mantissa);
+        long man = mantissa << clz;
+        long retExp2 = ((217706L * exp10) >> 16) + 64 + 1023 - clz;
+
+        int index = 2 * (exp10 - Pow10Table.MIN_EXP10);
+        long powHi = Pow10Table.TABLE[index];
+        long powLo = Pow10Table.TABLE[index + 1];
+        long xHi = unsignedMultiplyHigh(man, powHi);
+        long xLo = man * powHi;
+        // The product is low by less than man; widen when that could carry into the top bits
+        if ((xHi & 0x1FF) == 0x1FF && Long.compareUnsigned(xLo + man, man) < 0) {
+            long yHi = unsignedMultiplyHigh(man, powLo);
+            long yLo = man * powLo;
+            long mergedHi = xHi;
+            long mergedLo = xLo + yHi;
+            if (Long.compareUnsigned(mergedLo, xLo) < 0) {
+                mergedHi++;
+            }
+            if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + man, man) < 0) {
+                return Double.NaN;
+            }
+            xHi = mergedHi;
+            xLo = mergedLo;
+        }
+
+        long msb = xHi >>> 63;
+        long retMantissa = xHi >>> (msb + 9);
+        retExp2 -= 1 ^ msb;
+        // Exactly halfway between two doubles: round-to-even needs the exact value
+        if (xLo == 0 && (xHi & 0x1FF) == 0 && (retMantissa & 3) == 1) {
+            return Double.NaN;
+        }
+        retMantissa += retMantissa & 1;
+        retMantissa >>>= 1;
+        if ((retMantissa >>> 53) > 0) {
+            retMantissa >>>= 1;
+            retExp2++;
+        }
+        // Subnormal, infinite or NaN exponents are left to the exact parser
+        if (retExp2 <= 0 || retExp2 >= 0x7FF) {
+            return Double.NaN;
+        }
+        long bits = (retExp2 << 52) | (retMantissa & 0x000FFFFFFFFFFFFFL);
+        if (negative) {
+            bits |= 0x8000000000000000L;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    /**
+     * 128-bit mantissas of 10^e, normalized to a set top bit and rounded down, as {hi, lo} pairs.
+     * Built on first use of {@link #eiselLemire}.
+     */
+    private static final class Pow10Table {
+        static final int MIN_EXP10 = -348;
+        static final int MAX_EXP10 = 347;
+        static final long[] TABLE = build();
+
+        private static long[] build() {
+            long[] table = new long[2 * (MAX_EXP10 - MIN_EXP10 + 1)];
+            BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            for (int e = MIN_EXP10; e <= MAX_EXP10; e++) {
+                BigInteger value;
+                if (e >= 0) {
+                    value = BigInteger.TEN.pow(e);
+                    int shift = value.bitLength() - 128;
+                    value = shift > 0 ? value.shiftRight(shift) : value.shiftLeft(-shift);
+                } else {
+                    // floor(2^s / 10^-e) with s chosen so the quotient has exactly 128 bits
+                    BigInteger divisor = BigInteger.TEN.pow(-e);
+                    value = BigInteger.ONE.shiftLeft(divisor.bitLength() + 127).divide(divisor);
+                }
+                int index = 2 * (e - MIN_EXP10);
+                table[index] = value.shiftRight(64).longValue();
+                table[index + 1] = value.and(mask).longValue();
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Edges of one chunk in file order.
+     */
+    private static final class Chunk {
+        int[] from;
+        int[] to;
+        double[] w;
+        int size = 0;
+        int maxVertex = -1;
+        /** Single-integer line that came before any edge of this chunk, or -1. */
+        int leadingN = -1;
+        long leadingOffset;
+        boolean hasData = false;
+
+        Chunk(int capacity) {
+            from = new int[capacity];
+            to = new int[capacity];
+            w = new double[capacity];
+        }
+
+        /**
+         * Drops the unused tail, so chunks waiting for the merge hold 16 bytes per edge and no slack.
+         */
+        void trim() {
+            if (size < from.length) {
+                from = Arrays.copyOf(from, size);
+                to = Arrays.copyOf(to, size);
+                w = Arrays.copyOf(w, size);
+            }
+        }
+
+        void add(int u, int v, double weight) {
+            if (size == from.length) {
+                int capacity = from.length + (from.length >> 1);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                w = Arrays.copyOf(w, capacity);
+            }
+            from[size] = u;
+            to[size] = v;
+            w[size] = weight;
+            size++;
+            hasData = true;
+            maxVertex = Math.max(maxVertex, Math.max(u, v));
+        }
+    }
+
+    /**
+     * Parses one mapped chunk byte by byte. Errors report the absolute byte offset of the line.
+     */
+    private static final class ChunkParser {
+        private final ByteBuffer buffer;
+        private final long base;
+        private final int limit;
+        private int pos = 0;
+        private int lineStart = 0;
+
+        ChunkParser(ByteBuffer buffer, long base) {
+            this.buffer = buffer;
+            this.base = base;
+            this.limit = buffer.limit();
+        }
+
+        Chunk run() {
+            Chunk chunk = new Chunk(INITIAL_CHUNK_EDGES);
+            while (pos < limit) {
+                lineStart = pos;
+                skipBlanks();
+                if (pos == limit) {
+                    break;
+                }
+                byte b = buffer.get(pos);
+                if (b == '\n') {
+                    pos++;
+                    continue;
+                }
+                if (b == '#' || b == '%') {
+                    skipLine();
+                    continue;
+                }
+
+                int u = parseInt();
+                skipBlanks();
+                if (atLineEnd()) {
+                    if (chunk.hasData) {
+                        throw error("Edge needs two vertices");
+                    }
+                    chunk.leadingN = u;
+                    chunk.leadingOffset = base + lineStart;
+                    chunk.hasData = true;
+                    skipLine();
+                    continue;
+                }
+                int v = parseInt();
+                skipBlanks();
+                double weight = atLineEnd() ? 1.0 : parseDouble();
+                skipLine();
+                chunk.add(u, v, weight);
+            }
+            chunk.trim();
+            return chunk;
+        }
+
+        private void skipBlanks() {
+            while (pos < limit) {
+                byte b = buffer.get(pos);
+                if (b != ' ' && b != '\t' && b != '\r' && b != ',') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private void skipLine() {
+            while (pos < limit && buffer.get(pos++) != '\n') {
+                // consume through the newline
+            }
+        }
+
+        private boolean atLineEnd() {
+            return pos == limit || buffer.get(pos) == '\n';
+        }
+
+        private boolean isDelimiter(int index) {
+            if (index == limit) {
+                return true;
+            }
+            byte b = buffer.get(index);
+            return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == ',';
+        }
+
+        private int parseInt() {
+            long value = 0;
+            int start = pos;
+            while (pos < limit) {
+                int d = buffer.get(pos) - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+                value = value * 10 + d;
+                if (value > Integer.MAX_VALUE) {
+                    throw error("Vertex id too large");
+                }
+                pos++;
+            }
+            if (pos == start || !isDelimiter(pos)) {
+                throw error("Vertex id must be a non-negative integer");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Plain decimals with up to 15 significant digits and a power of ten up to 22 are exact as
+         * one multiplication or division. Up to 18 digits, which covers every shortest round-trip
+         * double, go through {@link #eiselLemire}. Only longer mantissas, exponents beyond the
+         * table, subnormals and the rare ambiguous cases go to {@link Double#parseDouble}.
+         */
+        private double parseDouble() {
+            int start = pos;
+            boolean negative = false;
+            byte b = buffer.get(pos);
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                pos++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int seen = 0;
+            int exponent = 0;
+            boolean fraction = false;
+            while (pos < limit) {
+                b = buffer.get(pos);
+                if (b >= '0' && b <= '9') {
+                    seen++;
+                    if (mantissa != 0 || b != '0') {
+                        if (++digits > 18) {
+                            return parseFallback(start);
+                        }
+                        mantissa = mantissa * 10 + (b - '0');
+                    }
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else if (b == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+                pos++;
+            }
+            if (seen == 0) {
+                return parseFallback(start);
+            }
+            if (pos < limit && (buffer.get(pos) == 'e' || buffer.get(pos) == 'E')) {
+                pos++;
+                boolean negativeExp = false;
+                if (pos < limit && (buffer.get(pos) == '-' || buffer.get(pos) == '+')) {
+                    negativeExp = buffer.get(pos) == '-';
+                    pos++;
+                }
+                int exp = 0;
+                int expStart = pos;
+                while (pos < limit && buffer.get(pos) >= '0' && buffer.get(pos) <= '9') {
+                    exp = Math.min(exp * 10 + (buffer.get(pos) - '0'), 10000);
+                    pos++;
+                }
+                if (pos == expStart) {
+                    return parseFallback(start);
+                }
+                exponent += negativeExp ? -exp : exp;
+            }
+            if (!isDelimiter(pos)) {
+                return parseFallback(start);
+            }
+            if (digits <= 15 && exponent >= -22 && exponent <= 22) {
+                double value = exponent >= 0 ? mantissa * POW10[exponent] : mantissa / POW10[-exponent];
+                return negative ? -value : value;
+            }
+            double value = eiselLemire(mantissa, exponent, negative);
+            return Double.isNaN(value) ? parseFallback(start) : value;
+        }
+
+        private double parseFallback(int start) {
+            pos = start;
+            while (!isDelimiter(pos)) {
+                pos++;
+            }
+            byte[] token = new byte[pos - start];
+            for (int i = 0; i < token.length; i++) {
+                token[i] = buffer.get(start + i);
+            }
+            try {
+                return Double.parseDouble(new String(token, StandardCharsets.ISO_8859_1));
+            } catch (NumberFormatException e) {
+                throw error("Invalid edge weight");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at byte " + (base + lineStart));
+        }
+    }
+}
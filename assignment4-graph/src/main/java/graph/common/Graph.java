@@ -23,6 +23,13 @@ public class Graph {
         }
     }
 
+    /**
+     * Adds u -> v alone, even when undirected; for copying adjacency that is already mirrored.
+     */
+    void addArc(int u, int v, double weight) {
+        adjList.get(u).add(new Edge(u, v, weight));
+    }
+
     public int getN() {
         return n;
     }
@@ -1,147 +1,323 @@
 package graph.common;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Streams graph JSON with a pull parser: edges go straight into a {@link CsrGraph.Builder}, so no
+ * JSON tree or adjacency lists are built. Peak memory is the builder's: about 2x the final CSR
+ * arrays for directed graphs and 1.7x for undirected ones. Fields may appear in any order.
+ */
 public class GraphLoader {
-    
 
     public static GraphData loadFromJson(String filename) throws IOException {
-        Gson gson = new Gson();
-        JsonObject json = gson.fromJson(new FileReader(filename), JsonObject.class);
-        
-        boolean directed = json.get("directed").getAsBoolean();
-        int n = json.get("n").getAsInt();
-        String weightModel = json.has("weight_model") ? json.get("weight_model").getAsString() : "edge";
-        int source = json.has("source") ? json.get("source").getAsInt() : 0;
-        String density = json.has("density") ? json.get("density").getAsString() : "unknown";
-        String variant = json.has("variant") ? json.get("variant").getAsString() : "unknown";
-        int id = json.has("id") ? json.get("id").getAsInt() : 0;
-        
-        Graph graph = new Graph(n, directed);
-        
-        JsonArray edges = json.getAsJsonArray("edges");
-        for (int i = 0; i < edges.size(); i++) {
-            JsonObject edge = edges.get(i).getAsJsonObject();
-            int u = edge.get("u").getAsInt();
-            int v = edge.get("v").getAsInt();
-            double w = edge.get("w").getAsDouble();
-            graph.addEdge(u, v, w);
-        }
-        
-        return new GraphData(id, graph, source, weightModel, density, variant);
+        try (JsonReader reader = open(filename)) {
+            return readGraph(reader);
+        }
+    }
+
+    /**
+     * Loads a single graph straight into CSR form without building adjacency lists.
+     */
+    public static CsrGraph loadCsrFromJson(String filename) throws IOException {
+        return loadFromJson(filename).getCsr();
+    }
+
+    /**
+     * Reads graphs one at a time, so only the graph being processed is resident.
+     * Accepts a {"graphs": [...]} file or a single graph object. Close the iterator when done.
+     */
+    public static GraphIterator iterateGraphs(String filepath) throws IOException {
+        return new GraphIterator(open(filepath));
     }
-    
+
     /**
-     * Loads all graphs from a JSON file with validation (supports multiple graphs format).
+     * {@link #iterateGraphs} as a sequential stream; closing the stream closes the file.
      */
-    public static List<GraphData> loadAllGraphs(String filepath) throws IOException {
-        Gson gson = new Gson();
-        try (FileReader reader = new FileReader(filepath)) {
-            JsonObject root = gson.fromJson(reader, JsonObject.class);
-            if (root == null) throw new IOException("Invalid JSON format");
-
-            JsonArray graphsArray = root.getAsJsonArray("graphs");
-            if (graphsArray == null) {
-                // Single graph format - wrap it
-                JsonObject singleGraph = root;
-                List<GraphData> result = new ArrayList<>();
-                result.add(parseSingleGraph(singleGraph));
-                return result;
+    public static Stream<GraphData> streamGraphs(String filepath) throws IOException {
+        GraphIterator graphs = iterateGraphs(filepath);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(graphs, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(graphs::closeUnchecked);
+    }
+
+    private static JsonReader open(String filename) throws IOException {
+        return new JsonReader(new BufferedReader(new FileReader(filename), 1 << 16));
+    }
+
+    private static GraphData readGraph(JsonReader reader) throws IOException {
+        GraphFields fields = new GraphFields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!fields.read(name, reader)) {
+                reader.skipValue();
             }
+        }
+        reader.endObject();
+        return fields.build();
+    }
 
-            List<GraphData> graphsList = new ArrayList<>();
+    /**
+     * Pull iterator over the graphs of one file. The root is either {"graphs": [...]}, whose
+     * elements are parsed on demand, or a single graph object, parsed when the iterator opens.
+     * Parse errors surface as {@link UncheckedIOException} or {@link IllegalArgumentException}.
+     */
+    public static class GraphIterator implements Iterator<GraphData>, Closeable {
+        private final JsonReader reader;
+        private GraphData single;
+        private boolean inArray = false;
 
-            // Parse each graph
-            for (JsonElement element : graphsArray) {
-                JsonObject graphJson = element.getAsJsonObject();
-                graphsList.add(parseSingleGraph(graphJson));
+        private GraphIterator(JsonReader reader) throws IOException {
+            this.reader = reader;
+            try {
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) throw new IOException("Invalid JSON format");
+                GraphFields root = new GraphFields();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (name.equals("graphs")) {
+                        reader.beginArray();
+                        inArray = true;
+                        return;
+                    } else if (!root.read(name, reader)) {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                single = root.build();
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
             }
+        }
 
-            return graphsList;
-        } catch (IOException e) {
-            // Re-throw without printing - caller will handle gracefully
-            throw e;
+        @Override
+        public boolean hasNext() {
+            if (single != null) return true;
+            if (!inArray) return false;
+            try {
+                if (reader.hasNext()) return true;
+                reader.endArray();
+                inArray = false;
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
-    }
-    
-    private static GraphData parseSingleGraph(JsonObject graphJson) {
-        int id = graphJson.has("id") ? graphJson.get("id").getAsInt() : 0;
-        boolean directed = graphJson.has("directed") ? graphJson.get("directed").getAsBoolean() : true;
-        int n = graphJson.get("n").getAsInt();
 
-        if (n <= 0) throw new IllegalArgumentException("Vertices must be > 0");
+        @Override
+        public GraphData next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (single != null) {
+                GraphData graph = single;
+                single = null;
+                return graph;
+            }
+            try {
+                return readGraph(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-        int source = graphJson.has("source") ? graphJson.get("source").getAsInt() : 0;
-        if (source < 0 || source >= n) {
-            throw new IllegalArgumentException("Source out of bounds");
+        @Override
+        public void close() throws IOException {
+            reader.close();
         }
 
-        String density = graphJson.has("density") ? graphJson.get("density").getAsString() : "unknown";
-        String variant = graphJson.has("variant") ? graphJson.get("variant").getAsString() : "unknown";
-        String weightModel = graphJson.has("weight_model") ? graphJson.get("weight_model").getAsString() : "edge";
+        private void closeUnchecked() {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 
-        Graph graph = new Graph(n, directed);
+    /**
+     * Fields of one graph object as they stream past, validated once the object is complete.
+     */
+    private static class GraphFields {
+        private int id = 0;
+        private boolean directed = true;
+        private int n = -1;
+        private int source = 0;
+        private String density = "unknown";
+        private String variant = "unknown";
+        private String weightModel = "edge";
+        private double[] durations;
+        private CsrGraph.Builder edges;
 
-        // Parse edges
-        JsonArray edges = graphJson.getAsJsonArray("edges");
-        if (edges != null) {
-            for (JsonElement edgeElem : edges) {
-                JsonObject edge = edgeElem.getAsJsonObject();
-                int u = edge.get("u").getAsInt();
-                int v = edge.get("v").getAsInt();
-                double w = edge.get("w").getAsDouble();
+        boolean read(String name, JsonReader reader) throws IOException {
+            switch (name) {
+                case "id": id = reader.nextInt(); return true;
+                case "directed": directed = reader.nextBoolean(); return true;
+                case "n": n = reader.nextInt(); return true;
+                case "source": source = reader.nextInt(); return true;
+                case "density": density = reader.nextString(); return true;
+                case "variant": variant = reader.nextString(); return true;
+                case "weight_model": weightModel = reader.nextString(); return true;
+                case "durations": durations = readDoubles(reader); return true;
+                case "edges": edges = readEdges(reader); return true;
+                default: return false;
+            }
+        }
 
-                if (u < 0 || u >= n || v < 0 || v >= n) {
-                    throw new IllegalArgumentException("Edge vertex out of bounds");
+        /**
+         * Edges are buffered once; if the graph turns out undirected the builder mirrors them while sorting.
+         */
+        private CsrGraph.Builder readEdges(JsonReader reader) throws IOException {
+            CsrGraph.Builder builder = new CsrGraph.Builder(Math.max(n, 0), true);
+            reader.beginArray();
+            while (reader.hasNext()) {
+                int u = -1;
+                int v = -1;
+                double w = Double.NaN;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "u": u = reader.nextInt(); break;
+                        case "v": v = reader.nextInt(); break;
+                        case "w": w = reader.nextDouble(); break;
+                        default: reader.skipValue();
+                    }
                 }
+                reader.endObject();
+                if (Double.isNaN(w)) throw new IllegalArgumentException("Edge weight missing");
+                // Missing u or v stays -1 and fails the bounds check at build time
+                builder.addEdge(u, v, w);
+            }
+            reader.endArray();
+            return builder;
+        }
+
+        GraphData build() {
+            if (n == -1) throw new IllegalArgumentException("Vertex count n missing");
+            if (n <= 0) throw new IllegalArgumentException("Vertices must be > 0");
+            if (source < 0 || source >= n) {
+                throw new IllegalArgumentException("Source out of bounds");
+            }
+            if (durations != null && durations.length != n) {
+                throw new IllegalArgumentException("Durations must have one entry per vertex");
+            }
 
-                graph.addEdge(u, v, w);
+            CsrGraph.Builder builder = edges == null ? new CsrGraph.Builder(n, directed, 0) : edges;
+            if (edges != null && !directed) {
+                builder = edges.toUndirected();
             }
+            builder.setN(n);
+            CsrGraph csr = builder.build(); // throws "Edge vertex out of bounds"
+            return new GraphData(id, csr, source, weightModel, density, variant, durations);
         }
 
-        return new GraphData(id, graph, source, weightModel, density, variant);
+        private static double[] readDoubles(JsonReader reader) throws IOException {
+            double[] values = new double[16];
+            int size = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = reader.nextDouble();
+            }
+            reader.endArray();
+            return Arrays.copyOf(values, size);
+        }
     }
-    
+
+    /**
+     * One loaded graph with its metadata. The graph is held as CSR, as adjacency lists, or both;
+     * the missing form is converted on first request.
+     */
     public static class GraphData {
         private final int id;
-        public final Graph graph;
+        private Graph graph;
+        private CsrGraph csr;
         public final int source;
         public final String weightModel;
         private final String density;
         private final String variant;
-        
+        /** Per-vertex durations for the node weight model, or null. */
+        public final double[] durations;
+
         public GraphData(int id, Graph graph, int source, String weightModel, String density, String variant) {
-            this.id = id;
+            this(id, graph, source, weightModel, density, variant, null);
+        }
+
+        public GraphData(int id, Graph graph, int source, String weightModel, String density, String variant,
+                         double[] durations) {
+            this(id, source, weightModel, density, variant, durations);
             this.graph = graph;
+        }
+
+        public GraphData(int id, CsrGraph csr, int source, String weightModel, String density, String variant,
+                         double[] durations) {
+            this(id, source, weightModel, density, variant, durations);
+            this.csr = csr;
+        }
+
+        public GraphData(Graph graph, int source, String weightModel) {
+            this(0, graph, source, weightModel, "unknown", "unknown");
+        }
+
+        private GraphData(int id, int source, String weightModel, String density, String variant,
+                          double[] durations) {
+            this.id = id;
             this.source = source;
             this.weightModel = weightModel;
             this.density = density;
             this.variant = variant;
+            this.durations = durations;
         }
-        
-        public GraphData(Graph graph, int source, String weightModel) {
-            this(0, graph, source, weightModel, "unknown", "unknown");
+
+        /**
+         * Adjacency-list form, expanded from CSR on first call when loaded as CSR. This replaces
+         * the former public {@code graph} field, which forced every load to build adjacency lists.
+         */
+        public Graph getGraph() {
+            if (graph == null) {
+                graph = csr.toGraph();
+            }
+            return graph;
         }
-        
+
+        public CsrGraph getCsr() {
+            if (csr == null) {
+                csr = CsrGraph.fromGraph(graph);
+            }
+            return csr;
+        }
+
         public int getId() {
             return id;
         }
-        
+
         public String getDensity() {
             return density;
         }
-        
+
         public String getVariant() {
             return variant;
         }
+
+        /**
+         * Whether paths should add vertex durations: weight model "node" with durations present.
+         */
+        public boolean isNodeWeighted() {
+            return "node".equals(weightModel) && durations != null;
+        }
     }
 }
-
-
@@ -0,0 +1,54 @@
+package graph.common;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used for frontiers and work buffers.
+ */
+public final class IntList {
+    private int[] data;
+    private int size = 0;
+
+    public IntList() {
+        this(16);
+    }
+
+    public IntList(int capacity) {
+        this.data = new int[Math.max(capacity, 4)];
+    }
+
+    public void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length + (data.length >> 1));
+        }
+        data[size++] = value;
+    }
+
+    public int get(int index) {
+        return data[index];
+    }
+
+    public void set(int index, int value) {
+        data[index] = value;
+    }
+
+    public int removeLast() {
+        return data[--size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
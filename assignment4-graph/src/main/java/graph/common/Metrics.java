@@ -1,6 +1,9 @@
 package graph.common;
 
 public class Metrics implements MetricsInterface {
+    public static final String CSV_HEADER =
+            "graph_id;vertices;edges;density;variant;algorithm;total_operations_count;path_length;total_execution_time_ms\n";
+
     private long startTime;
     private double executionTimeMs = 0.0;
     private String algorithmName;
@@ -110,7 +113,7 @@ public class Metrics implements MetricsInterface {
     public static void writeCsv(String filePath, String[][] data, boolean append) throws java.io.IOException {
         try (java.io.BufferedWriter writer = new java.io.BufferedWriter(new java.io.FileWriter(filePath, append))) {
             if (!append) {
-                writer.write("graph_id;vertices;edges;density;variant;algorithm;total_operations_count;path_length;total_execution_time_ms\n");
+                writer.write(CSV_HEADER);
             }
             for (String[] row : data) {
                 writer.write(String.join(";", row) + "\n");
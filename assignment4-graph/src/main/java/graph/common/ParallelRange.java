@@ -0,0 +1,100 @@
+package graph.common;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits an index range into chunks of at most {@code grain} indices and runs them on a ForkJoinPool.
+ * When already inside a pool the work stays in that pool.
+ */
+public final class ParallelRange {
+
+    @FunctionalInterface
+    public interface Body {
+        void apply(int from, int to);
+    }
+
+    @FunctionalInterface
+    public interface Producer {
+        void apply(int index, IntList out);
+    }
+
+    private ParallelRange() {
+    }
+
+    public static void forEach(int from, int to, int grain, Body body) {
+        forEach(ForkJoinPool.commonPool(), from, to, grain, body);
+    }
+
+    public static void forEach(ForkJoinPool pool, int from, int to, int grain, Body body) {
+        if (to - from <= grain) {
+            if (from < to) {
+                body.apply(from, to);
+            }
+            return;
+        }
+        RangeTask task = new RangeTask(from, to, Math.max(grain, 1), body);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * Runs the producer over [0, count) with one output buffer per chunk of {@code grain} indices
+     * and concatenates the buffers in chunk order.
+     */
+    public static int[] gather(ForkJoinPool pool, int count, int grain, Producer producer) {
+        int chunks = (count + grain - 1) / grain;
+        int[][] buffers = new int[chunks][];
+        forEach(pool, 0, chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                IntList out = new IntList();
+                int end = Math.min(count, (c + 1) * grain);
+                for (int i = c * grain; i < end; i++) {
+                    producer.apply(i, out);
+                }
+                buffers[c] = out.toArray();
+            }
+        });
+        int total = 0;
+        for (int[] buffer : buffers) {
+            total += buffer.length;
+        }
+        int[] result = new int[total];
+        int pos = 0;
+        for (int[] buffer : buffers) {
+            System.arraycopy(buffer, 0, result, pos, buffer.length);
+            pos += buffer.length;
+        }
+        return result;
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final Body body;
+
+        RangeTask(int from, int to, int grain, Body body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.apply(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package graph.common;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming writers for the analysis outputs. Each result is written as soon as it is produced
+ * and flushed, so memory does not grow with the dataset and finished graphs are on disk even if
+ * a later one fails. Output can optionally be gzipped on the fly (sync-flushed per result).
+ */
+public final class ResultWriters {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ResultWriters() {
+    }
+
+    private static Writer open(String filePath, boolean gzip) throws IOException {
+        OutputStream out = new FileOutputStream(filePath);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE, true);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes {"results": [...]}, one object per result. Pretty output matches what Gson's
+     * pretty printer produces for the same tree; compact output has no whitespace.
+     */
+    public static class JsonResults implements Closeable {
+        private final JsonWriter json;
+        private int count = 0;
+
+        public JsonResults(String filePath, boolean pretty, boolean gzip) throws IOException {
+            this.json = new JsonWriter(open(filePath, gzip));
+            if (pretty) {
+                json.setIndent("  ");
+            }
+            // Same settings Gson uses when writing a JsonElement tree
+            json.setHtmlSafe(true);
+            json.setLenient(true);
+            json.beginObject();
+            json.name("results");
+            json.beginArray();
+        }
+
+        /**
+         * Writer positioned inside the results array; write exactly one value, then call {@link #endResult()}.
+         */
+        public JsonWriter result() {
+            return json;
+        }
+
+        public void endResult() throws IOException {
+            count++;
+            json.flush();
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Finishes the document and closes the file. After a result was abandoned mid-value the
+         * document cannot be finished: the file is still closed and an IOException reports it.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                json.endArray();
+                json.endObject();
+            } catch (IllegalStateException e) {
+                // Nesting left open by a partial result; JsonWriter.close() reports the incomplete document
+            } finally {
+                json.close();
+            }
+        }
+    }
+
+    /**
+     * Writes values[from, to) as a JSON array without boxing.
+     */
+    public static void writeInts(JsonWriter json, int[] values, int from, int to) throws IOException {
+        json.beginArray();
+        for (int i = from; i < to; i++) {
+            json.value(values[i]);
+        }
+        json.endArray();
+    }
+
+    /**
+     * Semicolon-separated rows under the {@link Metrics#CSV_HEADER} header.
+     */
+    public static class CsvResults implements Closeable {
+        private final Writer writer;
+
+        public CsvResults(String filePath, boolean gzip) throws IOException {
+            this.writer = open(filePath, gzip);
+            writer.write(Metrics.CSV_HEADER);
+        }
+
+        public void writeRow(String... fields) throws IOException {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    writer.write(';');
+                }
+                writer.write(fields[i]);
+            }
+            writer.write('\n');
+        }
+
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
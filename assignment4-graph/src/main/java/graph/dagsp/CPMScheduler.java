@@ -0,0 +1,133 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.IntList;
+
+/**
+ * Critical path method over a {@link PreparedDAG}. Edge weights are lags (or activity durations on
+ * arrows); node weights, when present, are activity durations on vertices, and a vertex finishes at
+ * its start plus its own weight. One forward sweep gives the earliest start of every vertex, one
+ * backward sweep the latest start that does not delay the project; floats and critical edges
+ * follow from the two.
+ */
+public class CPMScheduler {
+    private static final double DEFAULT_TOLERANCE = 1e-9;
+
+    private final PreparedDAG dag;
+    private final double tolerance;
+    private final DAGShortestPath.DAGSPMetrics metrics;
+
+    public CPMScheduler(PreparedDAG dag) {
+        this(dag, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param tolerance floats up to this value, scaled by the project length, count as zero
+     */
+    public CPMScheduler(PreparedDAG dag, double tolerance) {
+        this.dag = dag;
+        this.tolerance = tolerance;
+        this.metrics = new DAGShortestPath.DAGSPMetrics();
+    }
+
+    public Schedule schedule() {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        CsrGraph graph = dag.getGraph();
+        int[] order = dag.getOrder();
+        int n = graph.getN();
+
+        // Forward: earliest start, every vertex without predecessors at 0
+        double[] earliest = new double[n];
+        for (int u : order) {
+            double finish = earliest[u] + dag.nodeWeight(u);
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                metrics.relaxations++;
+                int v = graph.target(e);
+                earliest[v] = Math.max(earliest[v], finish + graph.weight(e));
+            }
+        }
+        double projectLength = 0;
+        for (int v = 0; v < n; v++) {
+            projectLength = Math.max(projectLength, earliest[v] + dag.nodeWeight(v));
+        }
+
+        // Backward: latest start and free float, sinks anchored at the project end
+        double[] latest = new double[n];
+        double[] freeFloat = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int u = order[i];
+            double duration = dag.nodeWeight(u);
+            double finish = earliest[u] + duration;
+            double late = projectLength - duration;
+            double free = projectLength - finish;
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                metrics.relaxations++;
+                int v = graph.target(e);
+                late = Math.min(late, latest[v] - graph.weight(e) - duration);
+                free = Math.min(free, earliest[v] - graph.weight(e) - finish);
+            }
+            latest[u] = late;
+            freeFloat[u] = free;
+        }
+
+        double eps = tolerance * Math.max(1.0, Math.abs(projectLength));
+        double[] totalFloat = new double[n];
+        for (int v = 0; v < n; v++) {
+            totalFloat[v] = latest[v] - earliest[v];
+        }
+        IntList critical = new IntList();
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                if (latest[graph.target(e)] - (earliest[u] + dag.nodeWeight(u)) - graph.weight(e) <= eps) {
+                    critical.add(e);
+                }
+            }
+        }
+
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return new Schedule(graph, projectLength, earliest, latest, totalFloat, freeFloat, critical.toArray(), eps);
+    }
+
+    public DAGShortestPath.DAGSPMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Per-vertex times and floats, plus the CSR indices of all critical edges in ascending order.
+     */
+    public static class Schedule {
+        public final double projectLength;
+        public final double[] earliestStart;
+        public final double[] latestStart;
+        public final double[] totalFloat;
+        public final double[] freeFloat;
+        public final int[] criticalEdges;
+        private final CsrGraph graph;
+        private final double eps;
+
+        public Schedule(CsrGraph graph, double projectLength, double[] earliestStart, double[] latestStart,
+                        double[] totalFloat, double[] freeFloat, int[] criticalEdges, double eps) {
+            this.graph = graph;
+            this.projectLength = projectLength;
+            this.earliestStart = earliestStart;
+            this.latestStart = latestStart;
+            this.totalFloat = totalFloat;
+            this.freeFloat = freeFloat;
+            this.criticalEdges = criticalEdges;
+            this.eps = eps;
+        }
+
+        public boolean isCritical(int v) {
+            return totalFloat[v] <= eps;
+        }
+
+        public int edgeSource(int criticalIndex) {
+            return graph.source(criticalEdges[criticalIndex]);
+        }
+
+        public int edgeTarget(int criticalIndex) {
+            return graph.target(criticalEdges[criticalIndex]);
+        }
+    }
+}
@@ -1,149 +1,213 @@
 package graph.dagsp;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
-import graph.topo.TopologicalSort;
 import java.util.*;
 
 public class DAGShortestPath {
-    private final Graph graph;
+    private final CsrGraph graph;
     private final DAGSPMetrics metrics;
+    private final double[] nodeWeights;
+    private PreparedDAG prepared;
+    private ParallelDAGShortestPath parallelEngine;
+    private boolean parallel = false;
     
     public DAGShortestPath(Graph graph) {
+        this(CsrGraph.fromGraph(graph));
+    }
+
+    public DAGShortestPath(CsrGraph graph) {
+        this(graph, null);
+    }
+
+    public DAGShortestPath(Graph graph, double[] nodeWeights) {
+        this(CsrGraph.fromGraph(graph), nodeWeights);
+    }
+
+    /**
+     * @param nodeWeights per-vertex durations added to every path through the vertex, or null
+     */
+    public DAGShortestPath(CsrGraph graph, double[] nodeWeights) {
         this.graph = graph;
+        this.nodeWeights = nodeWeights;
         this.metrics = new DAGSPMetrics();
     }
 
+    public DAGShortestPath(PreparedDAG prepared) {
+        this.graph = prepared.getGraph();
+        this.nodeWeights = prepared.getNodeWeights();
+        this.metrics = new DAGSPMetrics();
+        this.prepared = prepared;
+    }
+
+    /**
+     * Topological order, computed on first use and reused by every later query.
+     */
+    public PreparedDAG prepare() {
+        if (prepared == null) {
+            prepared = new PreparedDAG(graph, nodeWeights);
+        }
+        return prepared;
+    }
+
+    /**
+     * Relaxes shortest and longest paths level by level on the common pool.
+     * Results are identical to the sequential mode.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    private ParallelDAGShortestPath parallelEngine() {
+        if (parallelEngine == null) {
+            parallelEngine = new ParallelDAGShortestPath(prepare());
+        }
+        return parallelEngine;
+    }
+
     public PathResult shortestPaths(int source) {
-        int n = graph.getN();
-        
         long startTime = System.nanoTime();
         metrics.reset();
         
-        // Get topological order
-        TopologicalSort topo = new TopologicalSort(graph);
-        List<Integer> topoOrder = topo.sort();
-        
-        if (topoOrder.isEmpty()) {
-            throw new IllegalArgumentException("Graph contains a cycle - not a DAG");
-        }
-        
-        // Initialize distances
-        double[] dist = new double[n];
-        int[] pred = new int[n];
-        Arrays.fill(dist, Double.POSITIVE_INFINITY);
-        Arrays.fill(pred, -1);
-        dist[source] = 0;
-        
-        // Process vertices in topological order
-        for (int u : topoOrder) {
-            if (dist[u] != Double.POSITIVE_INFINITY) {
-                for (Graph.Edge edge : graph.getNeighbors(u)) {
-                    metrics.relaxations++;
-                    if (dist[u] + edge.weight < dist[edge.to]) {
-                        dist[edge.to] = dist[u] + edge.weight;
-                        pred[edge.to] = u;
-                    }
-                }
-            }
-        }
+        PathResult result = parallel
+                ? parallelEngine().relax(source, false, metrics)
+                : prepare().relaxShortest(source, metrics);
         
         long endTime = System.nanoTime();
         metrics.setElapsedTime(endTime - startTime);
         
-        return new PathResult(dist, pred);
+        return result;
     }
 
     public PathResult longestPaths(int source) {
-        int n = graph.getN();
-        
         long startTime = System.nanoTime();
         metrics.reset();
         
-        // Get topological order
-        TopologicalSort topo = new TopologicalSort(graph);
-        List<Integer> topoOrder = topo.sort();
-        
-        if (topoOrder.isEmpty()) {
-            throw new IllegalArgumentException("Graph contains a cycle - not a DAG");
-        }
-        
-        // Initialize distances (use negative infinity for longest path)
-        double[] dist = new double[n];
-        int[] pred = new int[n];
-        Arrays.fill(dist, Double.NEGATIVE_INFINITY);
-        Arrays.fill(pred, -1);
-        dist[source] = 0;
-        
-        // Process vertices in topological order (maximize instead of minimize)
-        for (int u : topoOrder) {
-            if (dist[u] != Double.NEGATIVE_INFINITY) {
-                for (Graph.Edge edge : graph.getNeighbors(u)) {
-                    metrics.relaxations++;
-                    if (dist[u] + edge.weight > dist[edge.to]) {
-                        dist[edge.to] = dist[u] + edge.weight;
-                        pred[edge.to] = u;
-                    }
-                }
-            }
-        }
+        PathResult result = parallel
+                ? parallelEngine().relax(source, true, metrics)
+                : prepare().relaxLongest(source, metrics);
         
         long endTime = System.nanoTime();
         metrics.setElapsedTime(endTime - startTime);
         
-        return new PathResult(dist, pred);
+        return result;
     }
 
+    /**
+     * Longest path over all (source, target) pairs; see {@link PreparedDAG#findCriticalPath()}.
+     */
     public CriticalPathResult findCriticalPath() {
-        int n = graph.getN();
-        double maxLength = Double.NEGATIVE_INFINITY;
-        int bestSource = -1;
-        int bestTarget = -1;
-        PathResult bestResult = null;
-        
-        // Try all possible source vertices
-        for (int source = 0; source < n; source++) {
-            PathResult result = longestPaths(source);
-            for (int target = 0; target < n; target++) {
-                if (result.distances[target] != Double.NEGATIVE_INFINITY && 
-                    result.distances[target] > maxLength) {
-                    maxLength = result.distances[target];
-                    bestSource = source;
-                    bestTarget = target;
-                    bestResult = result;
-                }
-            }
-        }
+        long startTime = System.nanoTime();
+        metrics.reset();
+        
+        CriticalPathResult result = prepare().criticalPath(metrics);
         
-        List<Integer> path = reconstructPath(bestResult, bestTarget);
-        return new CriticalPathResult(path, maxLength, bestSource, bestTarget);
+        long endTime = System.nanoTime();
+        metrics.setElapsedTime(endTime - startTime);
+        
+        return result;
+    }
+
+    /**
+     * Shortest s -> t path; see {@link PreparedDAG#shortestPath(int, int)}.
+     */
+    public PairPathResult shortestPath(int source, int target) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        PairPathResult result = prepare().pathBetween(source, target, false, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public PairPathResult longestPath(int source, int target) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        PairPathResult result = prepare().pathBetween(source, target, true, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
     }
 
     public List<Integer> reconstructPath(PathResult result, int target) {
-        if (result.predecessors[target] == -1 && result.distances[target] != 0) {
-            return Collections.emptyList(); // No path exists
-        }
-        
-        List<Integer> path = new ArrayList<>();
-        int current = target;
-        while (current != -1) {
-            path.add(current);
-            current = result.predecessors[current];
-        }
-        Collections.reverse(path);
-        return path;
+        return result.pathTo(target);
     }
     
     public DAGSPMetrics getMetrics() {
         return metrics;
     }
     
+    /**
+     * Distances and predecessor vertices. Engines that track them also fill the CSR index of each
+     * vertex's predecessor edge and its hop count from the source; otherwise those are null and
+     * farthestTarget is -1.
+     */
     public static class PathResult {
         public final double[] distances;
         public final int[] predecessors;
+        public final int[] predecessorEdges;
+        public final int[] hops;
+        /** Reached vertex with the most hops, smallest id on ties; the source if nothing else. */
+        public final int farthestTarget;
         
         public PathResult(double[] distances, int[] predecessors) {
+            this(distances, predecessors, null, null, -1);
+        }
+        
+        public PathResult(double[] distances, int[] predecessors, int[] predecessorEdges, int[] hops,
+                          int farthestTarget) {
             this.distances = distances;
             this.predecessors = predecessors;
+            this.predecessorEdges = predecessorEdges;
+            this.hops = hops;
+            this.farthestTarget = farthestTarget;
+        }
+        
+        /**
+         * Vertex with the most hops, smallest id on ties, starting from the source's 0.
+         */
+        static int farthest(int[] hops, int source) {
+            int best = source;
+            for (int v = 0; v < hops.length; v++) {
+                if (hops[v] > hops[best]) {
+                    best = v;
+                }
+            }
+            return best;
+        }
+        
+        /**
+         * Path from the source to target, or empty if target is unreached. The source is the only
+         * reached vertex without a predecessor; its distance is its node weight, not always 0.
+         */
+        public List<Integer> pathTo(int target) {
+            if (predecessors[target] == -1 && Double.isInfinite(distances[target])) {
+                return Collections.emptyList(); // No path exists
+            }
+            
+            List<Integer> path = new ArrayList<>();
+            int current = target;
+            while (current != -1) {
+                path.add(current);
+                current = predecessors[current];
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+    
+    /**
+     * One source-target path; the path is empty and the length infinite when t is unreachable.
+     */
+    public static class PairPathResult {
+        public final List<Integer> path;
+        public final double length;
+
+        public PairPathResult(List<Integer> path, double length) {
+            this.path = path;
+            this.length = length;
+        }
+
+        public boolean isReachable() {
+            return !path.isEmpty();
         }
     }
     
@@ -152,12 +216,19 @@ public class DAGShortestPath {
         public final double length;
         public final int source;
         public final int target;
+        /** CSR indices of the path's edges in order, or null. */
+        public final int[] edges;
         
         public CriticalPathResult(List<Integer> path, double length, int source, int target) {
+            this(path, length, source, target, null);
+        }
+        
+        public CriticalPathResult(List<Integer> path, double length, int source, int target, int[] edges) {
             this.path = path;
             this.length = length;
             this.source = source;
             this.target = target;
+            this.edges = edges;
         }
     }
     
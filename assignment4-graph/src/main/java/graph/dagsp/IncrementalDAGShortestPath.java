@@ -0,0 +1,340 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.IntList;
+import graph.topo.DynamicTopologicalOrder;
+import java.util.Arrays;
+
+/**
+ * Single-source shortest or longest paths kept up to date under edge weight changes,
+ * insertions and deletions.
+ * Changes are queued and applied by {@link #repair()}: only the heads of changed edges are
+ * recomputed, by pulling over their incoming edges, and a vertex whose distance or predecessor
+ * changes schedules its successors. Vertices are processed in topological position order with a
+ * heap, so each one is recomputed at most once per repair. Insertions keep the order valid through
+ * {@link DynamicTopologicalOrder}.
+ *
+ * Ties resolve as in the sequential sweep over {@link #getOrder()}: the predecessor is the tail
+ * with the smallest topological position, then the smallest edge id, among the optimal in-edges,
+ * which is the first strict improvement in push order. In-edge lists are unordered, so the pull
+ * compares those keys instead of relying on list order, and an insertion that moves vertices
+ * reschedules their heads, whose tie-break may have changed.
+ *
+ * Edges are identified by id: the CSR edge index for edges of the initial graph, the value
+ * returned by {@link #addEdge} for inserted ones. Optional node weights are added as in
+ * {@link PreparedDAG}: the source starts at its own weight and every edge adds its head's.
+ */
+public class IncrementalDAGShortestPath {
+    private final int n;
+    private final int source;
+    private final boolean longest;
+    private final double unreached;
+    private final double[] nodeWeights;
+    private final DynamicTopologicalOrder topo;
+
+    private final IntList[] outEdges;
+    private final IntList[] inEdges;
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private double[] edgeWeight;
+    private boolean[] removed;
+    private int edgeIds = 0;
+
+    private final double[] dist;
+    private final int[] pred;
+    private final boolean[] scheduled;
+    private final IntList pending = new IntList();
+    private final PositionHeap heap;
+    private int lastTouched = 0;
+    private final DAGShortestPath.DAGSPMetrics metrics;
+
+    public IncrementalDAGShortestPath(Graph graph, int source, boolean longest) {
+        this(CsrGraph.fromGraph(graph), source, longest, null);
+    }
+
+    public IncrementalDAGShortestPath(Graph graph, int source, boolean longest, double[] nodeWeights) {
+        this(CsrGraph.fromGraph(graph), source, longest, nodeWeights);
+    }
+
+    public IncrementalDAGShortestPath(CsrGraph graph, int source, boolean longest) {
+        this(graph, source, longest, null);
+    }
+
+    /**
+     * @param nodeWeights one weight per vertex, or null for edge weights only
+     */
+    public IncrementalDAGShortestPath(CsrGraph graph, int source, boolean longest, double[] nodeWeights) {
+        if (nodeWeights != null && nodeWeights.length != graph.getN()) {
+            throw new IllegalArgumentException("Node weights must have one entry per vertex");
+        }
+        this.n = graph.getN();
+        this.source = source;
+        this.longest = longest;
+        this.unreached = longest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        this.nodeWeights = nodeWeights;
+        this.topo = new DynamicTopologicalOrder(graph);
+
+        int m = graph.getEdgeCount();
+        this.outEdges = new IntList[n];
+        this.inEdges = new IntList[n];
+        this.edgeFrom = new int[Math.max(m, 4)];
+        this.edgeTo = new int[edgeFrom.length];
+        this.edgeWeight = new double[edgeFrom.length];
+        this.removed = new boolean[edgeFrom.length];
+        for (int v = 0; v < n; v++) {
+            outEdges[v] = new IntList(Math.max(graph.degree(v), 4));
+            inEdges[v] = new IntList(4);
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                link(u, graph.target(e), graph.weight(e));
+            }
+        }
+
+        this.dist = new double[n];
+        this.pred = new int[n];
+        this.scheduled = new boolean[n];
+        this.heap = new PositionHeap(n);
+        this.metrics = new DAGShortestPath.DAGSPMetrics();
+        Arrays.fill(dist, unreached);
+        Arrays.fill(pred, -1);
+
+        // The first repair computes everything reachable from the source
+        schedule(source);
+        repair();
+    }
+
+    public void setWeight(int edge, double weight) {
+        checkEdge(edge);
+        edgeWeight[edge] = weight;
+        schedule(edgeTo[edge]);
+    }
+
+    /**
+     * Inserts u -> v. Returns the new edge id, or -1 (and changes nothing) if it would close a cycle.
+     */
+    public int addEdge(int u, int v, double weight) {
+        if (!topo.addEdge(u, v)) {
+            return -1;
+        }
+        int edge = link(u, v, weight);
+        schedule(v);
+        for (int moved : topo.getLastMoved()) {
+            IntList out = outEdges[moved];
+            for (int i = 0; i < out.size(); i++) {
+                schedule(edgeTo[out.get(i)]);
+            }
+        }
+        return edge;
+    }
+
+    public void removeEdge(int edge) {
+        checkEdge(edge);
+        int u = edgeFrom[edge];
+        int v = edgeTo[edge];
+        removed[edge] = true;
+        topo.removeEdge(u, v);
+        removeOne(outEdges[u], edge);
+        removeOne(inEdges[v], edge);
+        schedule(v);
+    }
+
+    /**
+     * Applies all queued changes. Returns the number of vertices recomputed.
+     */
+    public int repair() {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        int[] position = topo.positions();
+        for (int i = 0; i < pending.size(); i++) {
+            heap.push(position[pending.get(i)], pending.get(i));
+        }
+        pending.clear();
+
+        int touched = 0;
+        while (!heap.isEmpty()) {
+            int v = heap.pop();
+            scheduled[v] = false;
+            touched++;
+            if (pull(v)) {
+                IntList out = outEdges[v];
+                for (int i = 0; i < out.size(); i++) {
+                    int w = edgeTo[out.get(i)];
+                    if (!scheduled[w]) {
+                        scheduled[w] = true;
+                        heap.push(position[w], w);
+                    }
+                }
+            }
+        }
+
+        lastTouched = touched;
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return touched;
+    }
+
+    /**
+     * Current distances and predecessors after applying queued changes. Shared, not copied.
+     */
+    public DAGShortestPath.PathResult getResult() {
+        if (!pending.isEmpty()) {
+            repair();
+        }
+        return new DAGShortestPath.PathResult(dist, pred);
+    }
+
+    /**
+     * Current topological order, the push order ties are resolved against. Shared, not copied: read only.
+     */
+    public int[] getOrder() {
+        return topo.order();
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getLastTouched() {
+        return lastTouched;
+    }
+
+    public int getEdgeCount() {
+        return topo.getEdgeCount();
+    }
+
+    public DAGShortestPath.DAGSPMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Recomputes v from its in-edges. Returns true if its distance or predecessor changed.
+     */
+    private boolean pull(int v) {
+        double best = v == source ? (nodeWeights == null ? 0 : nodeWeights[source]) : unreached;
+        int bestPred = -1;
+        int bestEdge = -1;
+        if (v != source) {
+            int[] position = topo.positions();
+            IntList in = inEdges[v];
+            for (int i = 0; i < in.size(); i++) {
+                int e = in.get(i);
+                int u = edgeFrom[e];
+                if (dist[u] == unreached) {
+                    continue;
+                }
+                metrics.relaxations++;
+                double candidate = dist[u] + edgeWeight[e];
+                if (nodeWeights != null) {
+                    candidate += nodeWeights[v];
+                }
+                boolean better = longest ? candidate > best : candidate < best;
+                if (better || (candidate == best && bestPred >= 0
+                        && (position[u] < position[bestPred] || (u == bestPred && e < bestEdge)))) {
+                    best = candidate;
+                    bestPred = u;
+                    bestEdge = e;
+                }
+            }
+        }
+        boolean changed = Double.compare(best, dist[v]) != 0 || bestPred != pred[v];
+        dist[v] = best;
+        pred[v] = bestPred;
+        return changed;
+    }
+
+    private void schedule(int v) {
+        if (!scheduled[v]) {
+            scheduled[v] = true;
+            pending.add(v);
+        }
+    }
+
+    private int link(int u, int v, double weight) {
+        if (edgeIds == edgeFrom.length) {
+            int capacity = edgeIds * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+        }
+        int edge = edgeIds++;
+        edgeFrom[edge] = u;
+        edgeTo[edge] = v;
+        edgeWeight[edge] = weight;
+        outEdges[u].add(edge);
+        inEdges[v].add(edge);
+        return edge;
+    }
+
+    private void checkEdge(int edge) {
+        if (edge < 0 || edge >= edgeIds || removed[edge]) {
+            throw new IllegalArgumentException("Unknown edge: " + edge);
+        }
+    }
+
+    private static void removeOne(IntList list, int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                list.set(i, list.get(list.size() - 1));
+                list.removeLast();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Binary min-heap of vertices keyed by topological position, packed as (position << 32) | vertex.
+     */
+    private static final class PositionHeap {
+        private long[] keys;
+        private int size = 0;
+
+        PositionHeap(int capacity) {
+            this.keys = new long[Math.max(capacity, 4)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int position, int vertex) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            long key = ((long) position << 32) | vertex;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                i = parent;
+            }
+            keys[i] = key;
+        }
+
+        int pop() {
+            long top = keys[0];
+            long last = keys[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (last <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                i = child;
+            }
+            keys[i] = last;
+            return (int) top;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import java.util.Arrays;
+
+/**
+ * Shortest paths from many sources over one cached topological order.
+ * Distances are kept vertex-major ({@code distances[v * k + j]} for source j), and sources are
+ * processed in blocks: one sweep per block loads each edge once and relaxes it for every source
+ * of the block from contiguous memory. Per source the result equals
+ * {@link PreparedDAG#shortestPaths(int)}.
+ */
+public class MultiSourceShortestPaths {
+    private static final int DEFAULT_BLOCK = 32;
+    /** Largest array length the JVM reliably allocates. */
+    private static final long MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    private final PreparedDAG dag;
+    private final int blockSize;
+    private final DAGShortestPath.DAGSPMetrics metrics;
+
+    public MultiSourceShortestPaths(PreparedDAG dag) {
+        this(dag, DEFAULT_BLOCK);
+    }
+
+    public MultiSourceShortestPaths(PreparedDAG dag, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be > 0");
+        }
+        this.dag = dag;
+        this.blockSize = blockSize;
+        this.metrics = new DAGShortestPath.DAGSPMetrics();
+    }
+
+    /**
+     * The matrices hold n * k cells: 8 bytes each for distances plus 4 for predecessors.
+     * Requests above one array's limit (about 2^31 cells) are rejected; split the sources
+     * over several calls.
+     *
+     * @param keepPredecessors false drops the predecessor matrix, saving a third of the memory
+     */
+    public BatchPathResult shortestPaths(int[] sources, boolean keepPredecessors) {
+        CsrGraph graph = dag.getGraph();
+        int[] order = dag.getOrder();
+        double[] nodeWeights = dag.getNodeWeights();
+        int n = graph.getN();
+        int k = sources.length;
+        long cells = (long) n * k;
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("Distance matrix of " + n + " vertices x " + k
+                    + " sources exceeds " + MAX_CELLS + " cells; use fewer sources per call");
+        }
+        // From here n * k fits in an int, so every index v * k + j does too
+
+        long startTime = System.nanoTime();
+        metrics.reset();
+
+        double[] dist = new double[n * k];
+        int[] pred = keepPredecessors ? new int[n * k] : null;
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (pred != null) {
+            Arrays.fill(pred, -1);
+        }
+        for (int j = 0; j < k; j++) {
+            dist[sources[j] * k + j] = dag.nodeWeight(sources[j]);
+        }
+
+        for (int from = 0; from < k; from += blockSize) {
+            int to = Math.min(k, from + blockSize);
+            for (int u : order) {
+                int uBase = u * k;
+                if (!anyReached(dist, uBase + from, uBase + to)) {
+                    continue;
+                }
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    int v = graph.target(e);
+                    int vBase = v * k;
+                    double w = graph.weight(e);
+                    for (int j = from; j < to; j++) {
+                        double du = dist[uBase + j];
+                        if (du != Double.POSITIVE_INFINITY) {
+                            metrics.relaxations++;
+                            double candidate = du + w;
+                            if (nodeWeights != null) {
+                                candidate += nodeWeights[v];
+                            }
+                            if (candidate < dist[vBase + j]) {
+                                dist[vBase + j] = candidate;
+                                if (pred != null) {
+                                    pred[vBase + j] = u;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return new BatchPathResult(n, sources.clone(), dist, pred);
+    }
+
+    public DAGShortestPath.DAGSPMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static boolean anyReached(double[] dist, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (dist[i] != Double.POSITIVE_INFINITY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Distance and optional predecessor matrices for k sources, stored vertex-major.
+     */
+    public static class BatchPathResult {
+        public final int n;
+        public final int[] sources;
+        public final double[] distances;
+        /** Null when predecessors were dropped. */
+        public final int[] predecessors;
+
+        public BatchPathResult(int n, int[] sources, double[] distances, int[] predecessors) {
+            this.n = n;
+            this.sources = sources;
+            this.distances = distances;
+            this.predecessors = predecessors;
+        }
+
+        public double distance(int sourceIndex, int v) {
+            return distances[v * sources.length + sourceIndex];
+        }
+
+        public int predecessor(int sourceIndex, int v) {
+            if (predecessors == null) {
+                throw new IllegalStateException("Predecessors were not kept");
+            }
+            return predecessors[v * sources.length + sourceIndex];
+        }
+
+        /**
+         * Copies one source's column out as a single-source result.
+         */
+        public DAGShortestPath.PathResult toPathResult(int sourceIndex) {
+            double[] dist = new double[n];
+            int[] pred = new int[n];
+            for (int v = 0; v < n; v++) {
+                dist[v] = distance(sourceIndex, v);
+                pred[v] = predecessors == null ? -1 : predecessor(sourceIndex, v);
+            }
+            return new DAGShortestPath.PathResult(dist, pred);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.ParallelRange;
+import graph.topo.TopologicalSort;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Level-synchronous shortest and longest paths on a {@link PreparedDAG}.
+ * Every vertex of a topological level only has in-edges from earlier levels, so each level is
+ * relaxed in parallel by pulling over incoming edges: a vertex writes only its own entries.
+ * In-edges are ordered by the position of their tail in the prepared order (then by edge index),
+ * and a pull keeps the first strict improvement, which is exactly the edge the sequential push
+ * loop would have kept. Distances and predecessors are therefore identical to the sequential run.
+ */
+public class ParallelDAGShortestPath {
+    private static final int GRAIN = 512;
+
+    private final PreparedDAG dag;
+    private final ForkJoinPool pool;
+    private final TopologicalSort.LevelOrder levels;
+    // Reverse CSR: in-edges of v are inOffsets[v]..inOffsets[v + 1], ordered by tail position
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inEdges;
+    private final DAGShortestPath.DAGSPMetrics metrics;
+
+    public ParallelDAGShortestPath(PreparedDAG dag) {
+        this(dag, ForkJoinPool.commonPool());
+    }
+
+    public ParallelDAGShortestPath(PreparedDAG dag, ForkJoinPool pool) {
+        this.dag = dag;
+        this.pool = pool;
+        this.levels = new TopologicalSort(dag.getGraph()).sortByLevels(pool);
+        CsrGraph graph = dag.getGraph();
+        int n = graph.getN();
+        this.inOffsets = new int[n + 1];
+        this.inSources = new int[graph.getEdgeCount()];
+        this.inEdges = new int[graph.getEdgeCount()];
+        buildIncoming(graph, dag.getOrder());
+        this.metrics = new DAGShortestPath.DAGSPMetrics();
+    }
+
+    public DAGShortestPath.PathResult shortestPaths(int source) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        DAGShortestPath.PathResult result = relax(source, false, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public DAGShortestPath.PathResult longestPaths(int source) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        DAGShortestPath.PathResult result = relax(source, true, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public PreparedDAG getPrepared() {
+        return dag;
+    }
+
+    public int getLevelCount() {
+        return levels.levelCount();
+    }
+
+    public DAGShortestPath.DAGSPMetrics getMetrics() {
+        return metrics;
+    }
+
+    DAGShortestPath.PathResult relax(int source, boolean longest, DAGShortestPath.DAGSPMetrics counter) {
+        int n = inOffsets.length - 1;
+        double unreached = longest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        double[] dist = new double[n];
+        int[] pred = new int[n];
+        int[] predEdge = new int[n];
+        int[] hops = new int[n];
+        Arrays.fill(dist, unreached);
+        Arrays.fill(pred, -1);
+        Arrays.fill(predEdge, -1);
+        dist[source] = dag.nodeWeight(source);
+
+        // Level 0 has no in-edges; the source may sit anywhere, so start pulling at level 1
+        AtomicLong relaxations = new AtomicLong();
+        int[] order = levels.order;
+        for (int k = 1; k < levels.levelCount(); k++) {
+            ParallelRange.forEach(pool, levels.levelOffsets[k], levels.levelOffsets[k + 1], GRAIN, (from, to) -> {
+                long local = 0;
+                for (int i = from; i < to; i++) {
+                    local += pull(order[i], longest, unreached, dist, pred, predEdge, hops);
+                }
+                relaxations.addAndGet(local);
+            });
+        }
+        counter.relaxations += (int) relaxations.get();
+
+        return new DAGShortestPath.PathResult(dist, pred, predEdge, hops,
+                DAGShortestPath.PathResult.farthest(hops, source));
+    }
+
+    /**
+     * Relaxes every in-edge of v whose tail is reached; returns the number of edges relaxed.
+     */
+    private int pull(int v, boolean longest, double unreached, double[] dist, int[] pred, int[] predEdge,
+                     int[] hops) {
+        CsrGraph graph = dag.getGraph();
+        double[] nodeWeights = dag.getNodeWeights();
+        int relaxed = 0;
+        double best = dist[v];
+        int bestEdge = -1;
+        for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+            int u = inSources[i];
+            if (dist[u] == unreached) {
+                continue;
+            }
+            relaxed++;
+            int e = inEdges[i];
+            double candidate = dist[u] + graph.weight(e);
+            if (nodeWeights != null) {
+                candidate += nodeWeights[v];
+            }
+            if (longest ? candidate > best : candidate < best) {
+                best = candidate;
+                bestEdge = i;
+            }
+        }
+        if (bestEdge >= 0) {
+            int u = inSources[bestEdge];
+            dist[v] = best;
+            pred[v] = u;
+            predEdge[v] = inEdges[bestEdge];
+            hops[v] = hops[u] + 1;
+        }
+        return relaxed;
+    }
+
+    /**
+     * Counting sort of the edges by head; scanning tails in {@code order} leaves every in-edge list
+     * ordered by tail position, then edge index. The original edge index is kept for weights.
+     */
+    private void buildIncoming(CsrGraph graph, int[] order) {
+        int n = graph.getN();
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            inOffsets[graph.target(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] cursor = Arrays.copyOf(inOffsets, n);
+        for (int u : order) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int slot = cursor[graph.target(e)]++;
+                inSources[slot] = u;
+                inEdges[slot] = e;
+            }
+        }
+    }
+}
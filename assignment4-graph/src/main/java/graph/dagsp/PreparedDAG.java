@@ -0,0 +1,331 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.topo.TopologicalSort;
+import java.util.*;
+
+/**
+ * A DAG with its topological order computed once and cached as an {@code int[]}.
+ * Any number of shortest-path, longest-path and critical-path queries then cost only the
+ * relaxation sweep. Sorting time is reported by {@link #getOrderTimeNanos()} and
+ * {@link #getTopoMetrics()}, relaxation time of the last query by {@link #getMetrics()}.
+ *
+ * Optional node weights model per-vertex durations: a path's length is then the sum of its edge
+ * weights plus the weights of every vertex on it, source included, without splitting vertices.
+ */
+public class PreparedDAG {
+    private static final SemiringPaths.Semiring[] MIN_PLUS = {SemiringPaths.Semiring.MIN_PLUS};
+    private static final SemiringPaths.Semiring[] MAX_PLUS = {SemiringPaths.Semiring.MAX_PLUS};
+
+    private final CsrGraph graph;
+    private final int[] order;
+    private final TopologicalSort.TopoMetrics topoMetrics;
+    private final long orderTimeNanos;
+    private final DAGShortestPath.DAGSPMetrics metrics;
+    private final double[] nodeWeights;
+
+    // Point-to-point caches, built on the first pair query
+    private int[] position;
+    private CsrGraph reversed;
+    private boolean[] reachesTarget;
+    private int lastTarget = -1;
+
+    public PreparedDAG(Graph graph) {
+        this(CsrGraph.fromGraph(graph));
+    }
+
+    public PreparedDAG(Graph graph, double[] nodeWeights) {
+        this(CsrGraph.fromGraph(graph), nodeWeights);
+    }
+
+    public PreparedDAG(CsrGraph graph) {
+        this(graph, (double[]) null);
+    }
+
+    /**
+     * @param nodeWeights one weight per vertex, or null for edge weights only
+     */
+    public PreparedDAG(CsrGraph graph, double[] nodeWeights) {
+        checkNodeWeights(graph, nodeWeights);
+        this.graph = graph;
+        this.nodeWeights = nodeWeights;
+        TopologicalSort topo = new TopologicalSort(graph);
+        this.order = topo.sortToArray();
+        if (order == null) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG");
+        }
+        this.topoMetrics = topo.getMetrics();
+        this.orderTimeNanos = topoMetrics.getElapsedTime();
+        this.metrics = new DAGShortestPath.DAGSPMetrics();
+    }
+
+    /**
+     * Wraps an order computed elsewhere; the caller guarantees it is topological.
+     */
+    public PreparedDAG(CsrGraph graph, int[] order) {
+        this(graph, order, null);
+    }
+
+    public PreparedDAG(CsrGraph graph, int[] order, double[] nodeWeights) {
+        if (order.length != graph.getN()) {
+            throw new IllegalArgumentException("Order must contain every vertex");
+        }
+        checkNodeWeights(graph, nodeWeights);
+        this.graph = graph;
+        this.nodeWeights = nodeWeights;
+        this.order = order;
+        this.topoMetrics = new TopologicalSort.TopoMetrics();
+        this.orderTimeNanos = 0;
+        this.metrics = new DAGShortestPath.DAGSPMetrics();
+    }
+
+    public CsrGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Cached topological order. Shared, not copied: read only.
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * Per-vertex weights, or null when only edges are weighted. Shared, not copied: read only.
+     */
+    public double[] getNodeWeights() {
+        return nodeWeights;
+    }
+
+    /**
+     * Weight of vertex v, 0 without node weights.
+     */
+    public double nodeWeight(int v) {
+        return nodeWeights == null ? 0 : nodeWeights[v];
+    }
+
+    public long getOrderTimeNanos() {
+        return orderTimeNanos;
+    }
+
+    public TopologicalSort.TopoMetrics getTopoMetrics() {
+        return topoMetrics;
+    }
+
+    /**
+     * Relaxation metrics of the last query; excludes the one-time sort.
+     */
+    public DAGShortestPath.DAGSPMetrics getMetrics() {
+        return metrics;
+    }
+
+    public DAGShortestPath.PathResult shortestPaths(int source) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        DAGShortestPath.PathResult result = relaxShortest(source, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public DAGShortestPath.PathResult longestPaths(int source) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        DAGShortestPath.PathResult result = relaxLongest(source, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public DAGShortestPath.CriticalPathResult findCriticalPath() {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        DAGShortestPath.CriticalPathResult result = criticalPath(metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    /**
+     * Shortest path from source to target. Only the slice of the order between the two vertices is
+     * scanned, and within it only vertices that can reach the target; the returned path is the one
+     * {@code shortestPaths(source).pathTo(target)} would give.
+     */
+    public DAGShortestPath.PairPathResult shortestPath(int source, int target) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        DAGShortestPath.PairPathResult result = pathBetween(source, target, false, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public DAGShortestPath.PairPathResult longestPath(int source, int target) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        DAGShortestPath.PairPathResult result = pathBetween(source, target, true, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    DAGShortestPath.PairPathResult pathBetween(int source, int target, boolean longest,
+                                               DAGShortestPath.DAGSPMetrics counter) {
+        double unreached = longest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        int[] pos = positions();
+        int lo = pos[source];
+        int hi = pos[target];
+        if (lo > hi) {
+            return new DAGShortestPath.PairPathResult(Collections.emptyList(), unreached);
+        }
+        boolean[] mask = backwardMask(target);
+
+        // Slice-local arrays, indexed by position - lo
+        int width = hi - lo + 1;
+        double[] dist = new double[width];
+        int[] pred = new int[width];
+        Arrays.fill(dist, unreached);
+        Arrays.fill(pred, -1);
+        dist[0] = nodeWeight(source);
+
+        for (int i = lo; i < hi; i++) {
+            int u = order[i];
+            double du = dist[i - lo];
+            if (du == unreached || !mask[u]) {
+                continue;
+            }
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int v = graph.target(e);
+                if (pos[v] > hi || !mask[v]) {
+                    continue;
+                }
+                counter.relaxations++;
+                double candidate = du + graph.weight(e);
+                if (nodeWeights != null) {
+                    candidate += nodeWeights[v];
+                }
+                int slot = pos[v] - lo;
+                if (longest ? candidate > dist[slot] : candidate < dist[slot]) {
+                    dist[slot] = candidate;
+                    pred[slot] = u;
+                }
+            }
+        }
+
+        if (dist[width - 1] == unreached) {
+            return new DAGShortestPath.PairPathResult(Collections.emptyList(), unreached);
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int v = target; v != -1; v = pred[pos[v] - lo]) {
+            path.add(v);
+        }
+        Collections.reverse(path);
+        return new DAGShortestPath.PairPathResult(path, dist[width - 1]);
+    }
+
+    private static void checkNodeWeights(CsrGraph graph, double[] nodeWeights) {
+        if (nodeWeights != null && nodeWeights.length != graph.getN()) {
+            throw new IllegalArgumentException("Node weights must have one entry per vertex");
+        }
+    }
+
+    private int[] positions() {
+        if (position == null) {
+            position = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                position[order[i]] = i;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Vertices that can reach target, from a backward pass over the reversed graph.
+     * The mask of the last target is kept, so repeated queries to one target skip the pass.
+     */
+    private boolean[] backwardMask(int target) {
+        if (target == lastTarget) {
+            return reachesTarget;
+        }
+        if (reversed == null) {
+            reversed = graph.reverse();
+            reachesTarget = new boolean[graph.getN()];
+        } else {
+            Arrays.fill(reachesTarget, false);
+        }
+        int[] stack = new int[graph.getN()];
+        int top = 0;
+        reachesTarget[target] = true;
+        stack[top++] = target;
+        while (top > 0) {
+            int v = stack[--top];
+            for (int e = reversed.edgeStart(v); e < reversed.edgeEnd(v); e++) {
+                int u = reversed.target(e);
+                if (!reachesTarget[u]) {
+                    reachesTarget[u] = true;
+                    stack[top++] = u;
+                }
+            }
+        }
+        lastTarget = target;
+        return reachesTarget;
+    }
+
+    DAGShortestPath.PathResult relaxShortest(int source, DAGShortestPath.DAGSPMetrics counter) {
+        return SemiringPaths.sweep(this, source, MIN_PLUS, counter).toPathResult(SemiringPaths.Semiring.MIN_PLUS);
+    }
+
+    DAGShortestPath.PathResult relaxLongest(int source, DAGShortestPath.DAGSPMetrics counter) {
+        return SemiringPaths.sweep(this, source, MAX_PLUS, counter).toPathResult(SemiringPaths.Semiring.MAX_PLUS);
+    }
+
+    /**
+     * Longest path over all (source, target) pairs in one topological sweep.
+     * Every vertex starts as its own source at its node weight, and origin[v] tracks the smallest source
+     * that reaches v's best distance, so ties resolve to the same (source, target) pair as trying
+     * each source in turn. The path is then rebuilt with one longest-path run from that source.
+     */
+    DAGShortestPath.CriticalPathResult criticalPath(DAGShortestPath.DAGSPMetrics counter) {
+        int n = graph.getN();
+        if (n == 0) {
+            return new DAGShortestPath.CriticalPathResult(Collections.emptyList(), Double.NEGATIVE_INFINITY, -1, -1, new int[0]);
+        }
+
+        double[] dist = new double[n];
+        int[] origin = new int[n];
+        for (int v = 0; v < n; v++) {
+            dist[v] = nodeWeight(v);
+            origin[v] = v;
+        }
+
+        for (int u : order) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                counter.relaxations++;
+                int v = graph.target(e);
+                double candidate = dist[u] + graph.weight(e);
+                if (nodeWeights != null) {
+                    candidate += nodeWeights[v];
+                }
+                if (candidate > dist[v] || (candidate == dist[v] && origin[u] < origin[v])) {
+                    dist[v] = candidate;
+                    origin[v] = origin[u];
+                }
+            }
+        }
+
+        double maxLength = Double.NEGATIVE_INFINITY;
+        int bestSource = -1;
+        int bestTarget = -1;
+        for (int target = 0; target < n; target++) {
+            if (dist[target] > maxLength || (dist[target] == maxLength && origin[target] < bestSource)) {
+                maxLength = dist[target];
+                bestSource = origin[target];
+                bestTarget = target;
+            }
+        }
+
+        DAGShortestPath.PathResult bestResult = relaxLongest(bestSource, counter);
+        List<Integer> path = bestResult.pathTo(bestTarget);
+        int[] edges = new int[Math.max(path.size() - 1, 0)];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = bestResult.predecessorEdges[path.get(i + 1)];
+        }
+        return new DAGShortestPath.CriticalPathResult(path, bestResult.distances[bestTarget], bestSource, bestTarget, edges);
+    }
+}
@@ -0,0 +1,206 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import java.util.Arrays;
+
+/**
+ * Single-source dynamic programming over a {@link PreparedDAG} under one or more semirings,
+ * all evaluated in the same topological sweep so each edge is loaded once.
+ * Values are plain {@code double[]} per semiring and the semiring is chosen with a switch,
+ * so nothing is boxed per relaxation.
+ *
+ * Node weights of the DAG are added by the two path semirings only.
+ */
+public class SemiringPaths {
+
+    public enum Semiring {
+        /** Shortest path lengths: min over paths of the weight sum. */
+        MIN_PLUS(Double.POSITIVE_INFINITY),
+        /** Longest path lengths: max over paths of the weight sum. */
+        MAX_PLUS(Double.NEGATIVE_INFINITY),
+        /** Number of distinct paths; no predecessors. */
+        COUNTING(0),
+        /** Bottleneck capacity: max over paths of the smallest edge weight. */
+        MAX_MIN(Double.NEGATIVE_INFINITY);
+
+        /** Value of a vertex no path reaches. */
+        public final double zero;
+
+        Semiring(double zero) {
+            this.zero = zero;
+        }
+    }
+
+    private final PreparedDAG dag;
+    private final DAGShortestPath.DAGSPMetrics metrics;
+
+    public SemiringPaths(PreparedDAG dag) {
+        this.dag = dag;
+        this.metrics = new DAGShortestPath.DAGSPMetrics();
+    }
+
+    public Result evaluate(int source, Semiring... semirings) {
+        long startTime = System.nanoTime();
+        metrics.reset();
+        Result result = sweep(dag, source, semirings, metrics);
+        metrics.setElapsedTime(System.nanoTime() - startTime);
+        return result;
+    }
+
+    public DAGShortestPath.DAGSPMetrics getMetrics() {
+        return metrics;
+    }
+
+    static Result sweep(PreparedDAG dag, int source, Semiring[] semirings, DAGShortestPath.DAGSPMetrics counter) {
+        if (semirings.length == 0) {
+            throw new IllegalArgumentException("At least one semiring is required");
+        }
+        CsrGraph graph = dag.getGraph();
+        double[] nodeWeights = dag.getNodeWeights();
+        int n = graph.getN();
+        int k = semirings.length;
+
+        double[][] values = new double[k][];
+        int[][] preds = new int[k][];
+        int[][] predEdges = new int[k][];
+        int[][] hops = new int[k][];
+        for (int i = 0; i < k; i++) {
+            values[i] = new double[n];
+            Arrays.fill(values[i], semirings[i].zero);
+            values[i][source] = one(semirings[i], dag.nodeWeight(source));
+            if (semirings[i] != Semiring.COUNTING) {
+                preds[i] = new int[n];
+                predEdges[i] = new int[n];
+                hops[i] = new int[n];
+                Arrays.fill(preds[i], -1);
+                Arrays.fill(predEdges[i], -1);
+            }
+        }
+
+        // Every semiring reaches the same vertices, so the first one decides what to skip
+        double[] reach = values[0];
+        double unreached = semirings[0].zero;
+        for (int u : dag.getOrder()) {
+            if (reach[u] == unreached) {
+                continue;
+            }
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                counter.relaxations++;
+                int v = graph.target(e);
+                double w = graph.weight(e);
+                for (int i = 0; i < k; i++) {
+                    double[] val = values[i];
+                    double candidate;
+                    switch (semirings[i]) {
+                        case MIN_PLUS:
+                            candidate = val[u] + w;
+                            if (nodeWeights != null) {
+                                candidate += nodeWeights[v];
+                            }
+                            if (candidate < val[v]) {
+                                val[v] = candidate;
+                                setPredecessor(preds[i], predEdges[i], hops[i], u, v, e);
+                            }
+                            break;
+                        case MAX_PLUS:
+                            candidate = val[u] + w;
+                            if (nodeWeights != null) {
+                                candidate += nodeWeights[v];
+                            }
+                            if (candidate > val[v]) {
+                                val[v] = candidate;
+                                setPredecessor(preds[i], predEdges[i], hops[i], u, v, e);
+                            }
+                            break;
+                        case COUNTING:
+                            val[v] += val[u];
+                            break;
+                        case MAX_MIN:
+                            candidate = Math.min(val[u], w);
+                            if (candidate > val[v]) {
+                                val[v] = candidate;
+                                setPredecessor(preds[i], predEdges[i], hops[i], u, v, e);
+                            }
+                            break;
+                        default:
+                            throw new IllegalStateException("Unknown semiring: " + semirings[i]);
+                    }
+                }
+            }
+        }
+
+        return new Result(source, semirings.clone(), values, preds, predEdges, hops);
+    }
+
+    private static void setPredecessor(int[] pred, int[] predEdge, int[] hops, int u, int v, int edge) {
+        pred[v] = u;
+        predEdge[v] = edge;
+        hops[v] = hops[u] + 1;
+    }
+
+    private static double one(Semiring semiring, double sourceWeight) {
+        switch (semiring) {
+            case MIN_PLUS:
+            case MAX_PLUS:
+                return sourceWeight;
+            case COUNTING:
+                return 1;
+            case MAX_MIN:
+                return Double.POSITIVE_INFINITY;
+            default:
+                throw new IllegalStateException("Unknown semiring: " + semiring);
+        }
+    }
+
+    /**
+     * Per-semiring values and predecessors, in the order the semirings were requested.
+     */
+    public static class Result {
+        public final int source;
+        public final Semiring[] semirings;
+        public final double[][] values;
+        /** Null entries for COUNTING, as in the two arrays below. */
+        public final int[][] predecessors;
+        public final int[][] predecessorEdges;
+        public final int[][] hops;
+
+        public Result(int source, Semiring[] semirings, double[][] values, int[][] predecessors,
+                      int[][] predecessorEdges, int[][] hops) {
+            this.source = source;
+            this.semirings = semirings;
+            this.values = values;
+            this.predecessors = predecessors;
+            this.predecessorEdges = predecessorEdges;
+            this.hops = hops;
+        }
+
+        public double[] values(Semiring semiring) {
+            return values[indexOf(semiring)];
+        }
+
+        public int[] predecessors(Semiring semiring) {
+            return predecessors[indexOf(semiring)];
+        }
+
+        /**
+         * Values and predecessors of one path semiring, shared not copied.
+         */
+        public DAGShortestPath.PathResult toPathResult(Semiring semiring) {
+            if (semiring == Semiring.COUNTING) {
+                throw new IllegalArgumentException("Path counts have no predecessors");
+            }
+            int i = indexOf(semiring);
+            return new DAGShortestPath.PathResult(values[i], predecessors[i], predecessorEdges[i], hops[i],
+                    DAGShortestPath.PathResult.farthest(hops[i], source));
+        }
+
+        private int indexOf(Semiring semiring) {
+            for (int i = 0; i < semirings.length; i++) {
+                if (semirings[i] == semiring) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Semiring not evaluated: " + semiring);
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package graph.reach;
+
+import graph.common.CsrGraph;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Answers "can a reach b?" on a condensation DAG, and on original vertices through vertexToSCC.
+ *
+ * Small DAGs store the full transitive closure as one bitset row per component, making every
+ * query a single bit test. Larger DAGs get an exact tree cover: components are numbered in the
+ * post-order of a DFS spanning forest, and every component keeps the sorted, merged intervals of
+ * post numbers it reaches. A query is a binary search, O(log k) for k intervals.
+ * <p>
+ * Interval lists can grow quadratically on adversarial DAGs, so their total size is capped
+ * (16 intervals per component by default). Above the cap the index keeps per-component labels
+ * instead:
+ * <ul>
+ *   <li>topological level: u can only reach components on a higher level,</li>
+ *   <li>GRAIL interval [low, post] from a DFS post-order: reachability implies containment,</li>
+ *   <li>DFS spanning-tree interval [pre, post]: tree descendants are reachable.</li>
+ * </ul>
+ * Queries that no label decides fall back to a DFS pruned by the same labels, which is
+ * O(n + m) in the worst case; {@link #getFallbackSearches()} counts them.
+ * The fallback reuses a visit buffer, so a label index must not be queried from several threads.
+ */
+public class ReachabilityIndex {
+    /** DAGs up to this many components get a full closure (8 MB at the limit). */
+    public static final int DEFAULT_CLOSURE_LIMIT = 8192;
+    /** Interval lists may hold this many intervals per component on average. */
+    public static final int DEFAULT_INTERVALS_PER_VERTEX = 16;
+
+    private static final int MAGIC = 0x52494458; // "RIDX"
+    private static final int VERSION = 1;
+    private static final int MODE_CLOSURE = 0;
+    private static final int MODE_INTERVALS = 1;
+    private static final int MODE_LABELS = 2;
+
+    private final int n;
+    private final int[] vertexToSCC;
+    private final long buildTimeNanos;
+
+    // Closure mode: row u holds bit v iff u reaches v (u != v)
+    private final long[] closure;
+    private final int words;
+
+    // Interval mode: component u reaches post numbers intervals[2i..2i+1] for
+    // i in [intervalOffsets[u], intervalOffsets[u + 1]); post is shared with label mode
+    private final int[] intervalOffsets;
+    private final int[] intervals;
+
+    // Label mode
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] level;
+    private final int[] pre;
+    private final int[] post;
+    private final int[] low;
+    private final int[] visitStamp;
+    private final int[] stack;
+    private int epoch = 0;
+    private long fallbackSearches = 0;
+
+    private ReachabilityIndex(int n, int[] vertexToSCC, long buildTimeNanos, long[] closure,
+                              int[] intervalOffsets, int[] intervals,
+                              int[] offsets, int[] targets, int[] level, int[] pre, int[] post, int[] low) {
+        this.n = n;
+        this.vertexToSCC = vertexToSCC;
+        this.buildTimeNanos = buildTimeNanos;
+        this.closure = closure;
+        this.words = (n + 63) >>> 6;
+        this.intervalOffsets = intervalOffsets;
+        this.intervals = intervals;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.level = level;
+        this.pre = pre;
+        this.post = post;
+        this.low = low;
+        boolean labels = closure == null && intervals == null;
+        this.visitStamp = labels ? new int[n] : null;
+        this.stack = labels ? new int[n] : null;
+    }
+
+    public static ReachabilityIndex build(TarjanSCC.CondensationGraph condensation) {
+        return build(CsrGraph.fromGraph(condensation.graph), condensation.vertexToSCC, DEFAULT_CLOSURE_LIMIT);
+    }
+
+    public static ReachabilityIndex build(CsrGraph dag, int[] vertexToSCC) {
+        return build(dag, vertexToSCC, DEFAULT_CLOSURE_LIMIT);
+    }
+
+    public static ReachabilityIndex build(CsrGraph dag, int[] vertexToSCC, int closureLimit) {
+        return build(dag, vertexToSCC, closureLimit, DEFAULT_INTERVALS_PER_VERTEX * (long) dag.getN());
+    }
+
+    /**
+     * @param vertexToSCC original vertex to DAG vertex, or null when queries use DAG ids only
+     * @param closureLimit largest DAG that gets a full closure; 0 never builds one
+     * @param intervalBudget most intervals the tree cover may hold in total; 0 always builds labels
+     */
+    public static ReachabilityIndex build(CsrGraph dag, int[] vertexToSCC, int closureLimit, long intervalBudget) {
+        long startTime = System.nanoTime();
+        int n = dag.getN();
+        int[] order = new TopologicalSort(dag).sortToArray();
+        if (order == null) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG");
+        }
+
+        if (n <= closureLimit && (long) n * ((n + 63) >>> 6) <= Integer.MAX_VALUE) {
+            long[] closure = buildClosure(dag, order);
+            return new ReachabilityIndex(n, vertexToSCC, System.nanoTime() - startTime, closure,
+                    null, null, null, null, null, null, null, null);
+        }
+
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[dag.getEdgeCount()];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = dag.edgeEnd(u);
+            for (int e = dag.edgeStart(u); e < dag.edgeEnd(u); e++) {
+                targets[e] = dag.target(e);
+            }
+        }
+
+        int[] pre = new int[n];
+        int[] post = new int[n];
+        int[] treeLow = new int[n];
+        spanningForest(offsets, targets, order, pre, post, treeLow);
+
+        int[][] cover = treeCover(offsets, targets, order, post, treeLow, Math.min(intervalBudget, Integer.MAX_VALUE / 2));
+        if (cover != null) {
+            return new ReachabilityIndex(n, vertexToSCC, System.nanoTime() - startTime, null,
+                    cover[0], cover[1], null, null, null, null, post, null);
+        }
+
+        int[] level = new int[n];
+        for (int u : order) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                level[targets[e]] = Math.max(level[targets[e]], level[u] + 1);
+            }
+        }
+
+        // low[u]: smallest post number among everything u reaches, itself included
+        int[] low = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int u = order[i];
+            int best = post[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                best = Math.min(best, low[targets[e]]);
+            }
+            low[u] = best;
+        }
+
+        return new ReachabilityIndex(n, vertexToSCC, System.nanoTime() - startTime, null, null, null,
+                offsets, targets, level, pre, post, low);
+    }
+
+    /**
+     * Whether original vertex a reaches original vertex b.
+     */
+    public boolean reachable(int a, int b) {
+        if (vertexToSCC == null) {
+            throw new IllegalStateException("Index was built without a vertex mapping");
+        }
+        return reachableSCC(vertexToSCC[a], vertexToSCC[b]);
+    }
+
+    /**
+     * Whether DAG vertex u reaches DAG vertex v; every vertex reaches itself.
+     */
+    public boolean reachableSCC(int u, int v) {
+        if (u == v) {
+            return true;
+        }
+        if (closure != null) {
+            return (closure[u * words + (v >>> 6)] & (1L << v)) != 0;
+        }
+        if (intervals != null) {
+            return covered(u, post[v]);
+        }
+        if (excluded(u, v)) {
+            return false;
+        }
+        if (treeAncestor(u, v)) {
+            return true;
+        }
+        return search(u, v);
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public boolean isClosure() {
+        return closure != null;
+    }
+
+    /**
+     * Whether queries are answered from exact interval lists rather than labels plus DFS.
+     */
+    public boolean hasIntervals() {
+        return intervals != null;
+    }
+
+    public long getBuildTimeNanos() {
+        return buildTimeNanos;
+    }
+
+    /**
+     * Number of queries so far that needed the pruned DFS; always 0 for closure and interval indexes.
+     */
+    public long getFallbackSearches() {
+        return fallbackSearches;
+    }
+
+    public String getSummary() {
+        String mode = closure != null ? "closure" : intervals != null ? "intervals" : "labels";
+        return String.format("Mode: %s, Build: %.3f ms, Memory: %d bytes, Fallback searches: %d",
+                mode, buildTimeNanos / 1_000_000.0, memoryBytes(), fallbackSearches);
+    }
+
+    public long memoryBytes() {
+        long bytes = 4L * length(vertexToSCC);
+        if (closure != null) {
+            return bytes + 8L * closure.length;
+        }
+        return bytes + 4L * (length(intervalOffsets) + length(intervals) + length(offsets) + length(targets) + length(level) + length(pre)
+                + length(post) + length(low) + length(visitStamp) + length(stack));
+    }
+
+    public void save(String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(closure != null ? MODE_CLOSURE : intervals != null ? MODE_INTERVALS : MODE_LABELS);
+            out.writeLong(buildTimeNanos);
+            writeInts(out, vertexToSCC);
+            if (closure != null) {
+                out.writeInt(closure.length);
+                for (long word : closure) {
+                    out.writeLong(word);
+                }
+            } else if (intervals != null) {
+                writeInts(out, intervalOffsets);
+                writeInts(out, intervals);
+                writeInts(out, post);
+            } else {
+                writeInts(out, offsets);
+                writeInts(out, targets);
+                writeInts(out, level);
+                writeInts(out, pre);
+                writeInts(out, post);
+                writeInts(out, low);
+            }
+        }
+    }
+
+    public static ReachabilityIndex load(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a reachability index: " + filename);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported reachability index version: " + version);
+            }
+            int n = in.readInt();
+            int mode = in.readInt();
+            long buildTimeNanos = in.readLong();
+            int[] vertexToSCC = readInts(in);
+            if (mode == MODE_CLOSURE) {
+                long[] closure = new long[in.readInt()];
+                for (int i = 0; i < closure.length; i++) {
+                    closure[i] = in.readLong();
+                }
+                return new ReachabilityIndex(n, vertexToSCC, buildTimeNanos, closure,
+                        null, null, null, null, null, null, null, null);
+            }
+            if (mode == MODE_INTERVALS) {
+                int[] intervalOffsets = readInts(in);
+                int[] intervals = readInts(in);
+                int[] post = readInts(in);
+                return new ReachabilityIndex(n, vertexToSCC, buildTimeNanos, null, intervalOffsets, intervals,
+                        null, null, null, null, post, null);
+            }
+            int[] offsets = readInts(in);
+            int[] targets = readInts(in);
+            int[] level = readInts(in);
+            int[] pre = readInts(in);
+            int[] post = readInts(in);
+            int[] low = readInts(in);
+            return new ReachabilityIndex(n, vertexToSCC, buildTimeNanos, null, null, null,
+                    offsets, targets, level, pre, post, low);
+        }
+    }
+
+    /**
+     * Binary search for the last interval of u starting at or before p.
+     */
+    private boolean covered(int u, int p) {
+        int lo = intervalOffsets[u];
+        int hi = intervalOffsets[u + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (intervals[2 * mid] <= p) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi >= intervalOffsets[u] && p <= intervals[2 * hi + 1];
+    }
+
+    /**
+     * True when the labels prove v is not reachable from u.
+     */
+    private boolean excluded(int u, int v) {
+        return level[v] <= level[u] || post[v] > post[u] || low[v] < low[u];
+    }
+
+    private boolean treeAncestor(int u, int v) {
+        return pre[u] <= pre[v] && post[v] <= post[u];
+    }
+
+    private boolean search(int u, int v) {
+        fallbackSearches++;
+        if (++epoch == 0) {
+            Arrays.fill(visitStamp, 0);
+            epoch = 1;
+        }
+        int top = 0;
+        stack[top++] = u;
+        visitStamp[u] = epoch;
+        while (top > 0) {
+            int x = stack[--top];
+            for (int e = offsets[x]; e < offsets[x + 1]; e++) {
+                int w = targets[e];
+                if (w == v || treeAncestor(w, v)) {
+                    return true;
+                }
+                if (visitStamp[w] != epoch && !excluded(w, v)) {
+                    visitStamp[w] = epoch;
+                    stack[top++] = w;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rows filled in reverse topological order: a row is its successors' rows plus the successors.
+     */
+    private static long[] buildClosure(CsrGraph dag, int[] order) {
+        int n = dag.getN();
+        int words = (n + 63) >>> 6;
+        long[] closure = new long[n * words];
+        for (int i = n - 1; i >= 0; i--) {
+            int u = order[i];
+            int row = u * words;
+            for (int e = dag.edgeStart(u); e < dag.edgeEnd(u); e++) {
+                int v = dag.target(e);
+                int other = v * words;
+                closure[row + (v >>> 6)] |= 1L << v;
+                for (int w = 0; w < words; w++) {
+                    closure[row + w] |= closure[other + w];
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Exact tree cover in reverse topological order: the reached post numbers of u are its own
+     * subtree [treeLow[u], post[u]] plus everything its successors reach, sorted and merged.
+     * Returns {offsets, intervals}, or null once the lists exceed {@code budget} intervals.
+     */
+    private static int[][] treeCover(int[] offsets, int[] targets, int[] order, int[] post, int[] treeLow,
+                                     long budget) {
+        int n = order.length;
+        int[][] lists = new int[n][];
+        long total = 0;
+        long[] packed = new long[16];
+        for (int i = n - 1; i >= 0; i--) {
+            int u = order[i];
+            int count = 0;
+            packed[count++] = pack(treeLow[u], post[u]);
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int[] list = lists[targets[e]];
+                if (count + list.length / 2 > packed.length) {
+                    packed = Arrays.copyOf(packed, Math.max(packed.length * 2, count + list.length / 2));
+                }
+                for (int j = 0; j < list.length; j += 2) {
+                    packed[count++] = pack(list[j], list[j + 1]);
+                }
+            }
+            Arrays.sort(packed, 0, count);
+
+            int[] merged = new int[2 * count];
+            int size = 0;
+            for (int j = 0; j < count; j++) {
+                int start = (int) (packed[j] >>> 32);
+                int end = (int) packed[j];
+                if (size > 0 && start <= merged[size - 1] + 1) {
+                    merged[size - 1] = Math.max(merged[size - 1], end);
+                } else {
+                    merged[size++] = start;
+                    merged[size++] = end;
+                }
+            }
+            total += size / 2;
+            if (total > budget) {
+                return null;
+            }
+            lists[u] = size == merged.length ? merged : Arrays.copyOf(merged, size);
+        }
+
+        int[] intervalOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            intervalOffsets[u + 1] = intervalOffsets[u] + lists[u].length / 2;
+        }
+        int[] intervals = new int[2 * intervalOffsets[n]];
+        for (int u = 0; u < n; u++) {
+            System.arraycopy(lists[u], 0, intervals, 2 * intervalOffsets[u], lists[u].length);
+        }
+        return new int[][]{intervalOffsets, intervals};
+    }
+
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    /**
+     * Iterative DFS over every vertex, roots taken in topological order. treeLow[x] is the first
+     * post number handed out inside x's subtree, so the subtree is exactly [treeLow[x], post[x]].
+     */
+    private static void spanningForest(int[] offsets, int[] targets, int[] order, int[] pre, int[] post,
+                                       int[] treeLow) {
+        int n = order.length;
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int[] nextEdge = new int[n];
+        int preCounter = 0;
+        int postCounter = 0;
+        for (int root : order) {
+            if (visited[root]) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            visited[root] = true;
+            pre[root] = preCounter++;
+            treeLow[root] = postCounter;
+            nextEdge[root] = offsets[root];
+            while (top > 0) {
+                int x = stack[top - 1];
+                if (nextEdge[x] < offsets[x + 1]) {
+                    int w = targets[nextEdge[x]++];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        pre[w] = preCounter++;
+                        treeLow[w] = postCounter;
+                        nextEdge[w] = offsets[w];
+                        stack[top++] = w;
+                    }
+                } else {
+                    post[x] = postCounter++;
+                    top--;
+                }
+            }
+        }
+    }
+
+    private static int length(int[] array) {
+        return array == null ? 0 : array.length;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
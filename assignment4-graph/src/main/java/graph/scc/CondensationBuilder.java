@@ -0,0 +1,179 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.LongIntHashMap;
+import graph.common.ParallelRange;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds the condensation DAG from a vertex-to-component mapping.
+ * Inter-component edges are deduplicated on packed {@code (sccU << 32 | sccV)} keys in a primitive
+ * hash map, in first-seen order, so the result has the same adjacency order as a sequential scan.
+ * Parallel edges between two components are merged with a configurable weight aggregation.
+ */
+public class CondensationBuilder {
+    /** How the weights of parallel inter-component edges are combined. */
+    public enum WeightAggregation { FIRST, MIN, MAX }
+
+    private static final int PARALLEL_GRAIN = 4096;
+
+    private final CsrGraph graph;
+    private final int[] vertexToSCC;
+    private final int numSCCs;
+    private WeightAggregation aggregation = WeightAggregation.FIRST;
+    private boolean parallel = false;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    public CondensationBuilder(CsrGraph graph, int[] vertexToSCC, int numSCCs) {
+        this.graph = graph;
+        this.vertexToSCC = vertexToSCC;
+        this.numSCCs = numSCCs;
+    }
+
+    public CondensationBuilder(CsrGraph graph, TarjanSCC.Components components) {
+        this(graph, components.componentOf, components.count);
+    }
+
+    public CondensationBuilder aggregation(WeightAggregation aggregation) {
+        this.aggregation = aggregation;
+        return this;
+    }
+
+    /**
+     * Scans vertex ranges in parallel and merges the per-range edge sets in range order,
+     * which keeps the first-seen order of the sequential scan.
+     */
+    public CondensationBuilder parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    public CondensationBuilder pool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    public Graph buildGraph() {
+        EdgeSet edges = collect();
+        Graph condensation = new Graph(numSCCs, true);
+        for (int i = 0; i < edges.size; i++) {
+            condensation.addEdge((int) (edges.keys[i] >>> 32), (int) edges.keys[i], edges.weights[i]);
+        }
+        return condensation;
+    }
+
+    public CsrGraph buildCsr() {
+        EdgeSet edges = collect();
+        int[] offsets = new int[numSCCs + 1];
+        for (int i = 0; i < edges.size; i++) {
+            offsets[(int) (edges.keys[i] >>> 32) + 1]++;
+        }
+        for (int c = 0; c < numSCCs; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] cursor = Arrays.copyOf(offsets, numSCCs);
+        int[] targets = new int[edges.size];
+        double[] weights = new double[edges.size];
+        for (int i = 0; i < edges.size; i++) {
+            int slot = cursor[(int) (edges.keys[i] >>> 32)]++;
+            targets[slot] = (int) edges.keys[i];
+            weights[slot] = edges.weights[i];
+        }
+        return new CsrGraph(numSCCs, true, offsets, targets, weights);
+    }
+
+    public TarjanSCC.CondensationGraph build(List<List<Integer>> sccs) {
+        return new TarjanSCC.CondensationGraph(buildGraph(), sccs, vertexToSCC);
+    }
+
+    /**
+     * Node weights of the condensation: each component weighs the sum of its vertices.
+     */
+    public double[] sumNodeWeights(double[] nodeWeights) {
+        if (nodeWeights.length != graph.getN()) {
+            throw new IllegalArgumentException("Node weights must have one entry per vertex");
+        }
+        double[] sums = new double[numSCCs];
+        for (int v = 0; v < nodeWeights.length; v++) {
+            sums[vertexToSCC[v]] += nodeWeights[v];
+        }
+        return sums;
+    }
+
+    private EdgeSet collect() {
+        int n = graph.getN();
+        if (!parallel || n <= PARALLEL_GRAIN) {
+            EdgeSet edges = new EdgeSet(16);
+            scan(0, n, edges);
+            return edges;
+        }
+
+        int chunks = (n + PARALLEL_GRAIN - 1) / PARALLEL_GRAIN;
+        EdgeSet[] partial = new EdgeSet[chunks];
+        ParallelRange.forEach(pool, 0, chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                EdgeSet local = new EdgeSet(16);
+                scan(c * PARALLEL_GRAIN, Math.min(n, (c + 1) * PARALLEL_GRAIN), local);
+                partial[c] = local;
+            }
+        });
+
+        EdgeSet merged = new EdgeSet(partial[0].size);
+        for (EdgeSet local : partial) {
+            for (int i = 0; i < local.size; i++) {
+                merged.add(local.keys[i], local.weights[i], aggregation);
+            }
+        }
+        return merged;
+    }
+
+    private void scan(int from, int to, EdgeSet edges) {
+        for (int u = from; u < to; u++) {
+            long sccU = vertexToSCC[u];
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int sccV = vertexToSCC[graph.target(e)];
+                if (sccU != sccV) {
+                    edges.add((sccU << 32) | sccV, graph.weight(e), aggregation);
+                }
+            }
+        }
+    }
+
+    /**
+     * Distinct packed edge keys in first-seen order with their aggregated weights.
+     */
+    private static class EdgeSet {
+        final LongIntHashMap index;
+        long[] keys;
+        double[] weights;
+        int size = 0;
+
+        EdgeSet(int expected) {
+            index = new LongIntHashMap(expected);
+            keys = new long[Math.max(expected, 16)];
+            weights = new double[keys.length];
+        }
+
+        void add(long key, double weight, WeightAggregation aggregation) {
+            int existing = index.putIfAbsent(key, size);
+            if (existing >= 0) {
+                if (aggregation == WeightAggregation.MIN) {
+                    weights[existing] = Math.min(weights[existing], weight);
+                } else if (aggregation == WeightAggregation.MAX) {
+                    weights[existing] = Math.max(weights[existing], weight);
+                }
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            keys[size] = key;
+            weights[size] = weight;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.IntList;
+import graph.common.ParallelRange;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel SCC decomposition on a ForkJoinPool.
+ * <p>
+ * Forward-backward-trim: the graph is first trimmed with {@link SCCTrimmer}. The SCC of a pivot
+ * is the intersection of its forward and backward reachable sets; the rest splits into three
+ * subproblems (forward only, backward only, neither) that share no SCC. Each subproblem is
+ * trimmed again before it is split, the task keeps looping on the largest part and forks only
+ * the smaller ones, so fork depth stays logarithmic. Small subproblems, and any lineage that
+ * has split {@code MAX_SPLIT_DEPTH} times without shrinking enough, fall back to Tarjan
+ * restricted to the subproblem, which bounds the work on DAG-like parts to linear.
+ * <p>
+ * Coloring: every vertex takes the largest id that reaches it, then one backward search per
+ * label root collects that root's SCC. This peels many small components per round, which is
+ * what remains after a giant SCC has been removed, so {@link Strategy#AUTO} strips the pivot
+ * SCC first and switches to coloring when that SCC covers most of the graph. Label propagation
+ * is capped per round; a round that does not settle in time hands its vertices to
+ * forward-backward-trim.
+ * <p>
+ * Components are returned ordered by their smallest vertex, members ascending, so the output
+ * can be passed to {@link TarjanSCC#buildCondensation(List)} like Tarjan's.
+ */
+public class ParallelSCC {
+    public enum Strategy { FORWARD_BACKWARD, COLORING, AUTO }
+
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+    private static final int MAX_COLORING_ROUNDS = 64;
+    private static final int MAX_PROPAGATION_PASSES = 32;
+    private static final int MAX_SPLIT_DEPTH = 64;
+    private static final int GRAIN = 2048;
+
+    private final CsrGraph graph;
+    private final CsrGraph reverse;
+    private final Strategy strategy;
+    private final ForkJoinPool pool;
+    private final TarjanSCC.SCCMetrics metrics;
+
+    // Shared per-vertex state: each task only writes entries of its own vertex set, and
+    // subproblem colors are never reused, so a stale read of a foreign vertex never matches.
+    private int[] color;
+    private int[] forwardMark;
+    private int[] backwardMark;
+    private int[] component;
+    private int[] ids;
+    private int[] lowLink;
+    private int[] edgeCursor;
+    private boolean[] onStack;
+    private int[] inDegree;
+    private int[] outDegree;
+    private AtomicInteger nextColor;
+    private AtomicInteger nextComponent;
+    private LongAdder visits;
+    private LongAdder edgesExplored;
+    private int[] vertexToSCC;
+
+    public ParallelSCC(Graph graph) {
+        this(CsrGraph.fromGraph(graph));
+    }
+
+    public ParallelSCC(CsrGraph graph) {
+        this(graph, Strategy.AUTO, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSCC(CsrGraph graph, Strategy strategy, ForkJoinPool pool) {
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        this.strategy = strategy;
+        this.pool = pool;
+        this.metrics = new TarjanSCC.SCCMetrics();
+    }
+
+    public List<List<Integer>> findSCCs() {
+        int n = graph.getN();
+        color = new int[n];
+        forwardMark = new int[n];
+        backwardMark = new int[n];
+        component = new int[n];
+        ids = new int[n];
+        lowLink = new int[n];
+        edgeCursor = new int[n];
+        onStack = new boolean[n];
+        inDegree = new int[n];
+        outDegree = new int[n];
+        Arrays.fill(forwardMark, -1);
+        Arrays.fill(backwardMark, -1);
+        Arrays.fill(component, -1);
+        nextColor = new AtomicInteger(1);
+        nextComponent = new AtomicInteger(0);
+        visits = new LongAdder();
+        edgesExplored = new LongAdder();
+
+        long startTime = System.nanoTime();
+        metrics.reset();
+
+        if (n > 0) {
+            pool.invoke(new RootTask());
+        }
+        List<List<Integer>> sccs = canonicalize();
+
+        long endTime = System.nanoTime();
+        metrics.dfsVisits = visits.intValue();
+        metrics.edgesExplored = edgesExplored.intValue();
+        metrics.sccCount = sccs.size();
+        metrics.setElapsedTime(endTime - startTime);
+
+        return sccs;
+    }
+
+    /**
+     * Component index of every vertex for the last {@link #findSCCs()} call.
+     */
+    public int[] getVertexToSCC() {
+        return vertexToSCC;
+    }
+
+    /**
+     * Primitive form of the last {@link #findSCCs()} result.
+     */
+    public TarjanSCC.Components getComponents() {
+        return TarjanSCC.Components.fromComponentOf(vertexToSCC, metrics.sccCount);
+    }
+
+    public TarjanSCC.CondensationGraph buildCondensation(List<List<Integer>> sccs) {
+        return new TarjanSCC(graph).buildCondensation(sccs);
+    }
+
+    public TarjanSCC.SCCMetrics getMetrics() {
+        return metrics;
+    }
+
+    private List<List<Integer>> canonicalize() {
+        int n = graph.getN();
+        int[] remap = new int[nextComponent.get()];
+        Arrays.fill(remap, -1);
+        vertexToSCC = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int c = component[v];
+            if (remap[c] == -1) {
+                remap[c] = count++;
+            }
+            vertexToSCC[v] = remap[c];
+        }
+        List<List<Integer>> sccs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sccs.add(new ArrayList<>());
+        }
+        for (int v = 0; v < n; v++) {
+            sccs.get(vertexToSCC[v]).add(v);
+        }
+        return sccs;
+    }
+
+    private class RootTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            // Sources and sinks, and everything acyclic behind them, leave as singletons first
+            SCCTrimmer.TrimResult trimmed = new SCCTrimmer(graph, reverse, pool).trim();
+            for (int v : trimmed.peeled) {
+                component[v] = nextComponent.getAndIncrement();
+            }
+            visits.add(trimmed.peeled.length);
+            IntList core = new IntList();
+            for (int v = 0; v < graph.getN(); v++) {
+                if (!trimmed.removed[v]) {
+                    core.add(v);
+                }
+            }
+            int[] all = core.toArray();
+            if (all.length == 0) {
+                return;
+            }
+
+            if (strategy == Strategy.FORWARD_BACKWARD) {
+                new ForwardBackwardTask(all, 0, 0, true).compute();
+            } else if (strategy == Strategy.COLORING) {
+                runColoring(all);
+            } else {
+                // Peel the pivot SCC; a giant one leaves many small pieces best handled by coloring
+                int[][] parts = splitAroundPivot(all, 0);
+                int remaining = parts[0].length + parts[1].length + parts[2].length;
+                if (2 * (all.length - remaining) >= all.length) {
+                    runColoring(unassigned(parts));
+                } else {
+                    invokeAll(new ForwardBackwardTask(parts[0], 1), new ForwardBackwardTask(parts[1], 1),
+                            new ForwardBackwardTask(parts[2], 1));
+                }
+            }
+        }
+    }
+
+    private class ForwardBackwardTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] vertices;
+        private final int subproblemColor;
+        private final int depth;
+        private final boolean trimmed;
+
+        ForwardBackwardTask(int[] vertices, int depth) {
+            this(vertices, vertices.length == 0 ? -1 : color[vertices[0]], depth, false);
+        }
+
+        ForwardBackwardTask(int[] vertices, int subproblemColor, int depth, boolean trimmed) {
+            this.vertices = vertices;
+            this.subproblemColor = subproblemColor;
+            this.depth = depth;
+            this.trimmed = trimmed;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForwardBackwardTask> forked = new ArrayList<>();
+            int[] current = vertices;
+            int currentColor = subproblemColor;
+            boolean skipTrim = trimmed;
+            for (int d = depth; current.length > 0; d++) {
+                if (!skipTrim) {
+                    current = trimSubproblem(current, currentColor);
+                }
+                skipTrim = false;
+                if (current.length == 0) {
+                    break;
+                }
+                if (current.length <= SEQUENTIAL_THRESHOLD || d >= MAX_SPLIT_DEPTH) {
+                    restrictedTarjan(current, currentColor);
+                    break;
+                }
+                int[][] parts = splitAroundPivot(current, currentColor);
+                int largest = 0;
+                for (int i = 1; i < parts.length; i++) {
+                    if (parts[i].length > parts[largest].length) {
+                        largest = i;
+                    }
+                }
+                for (int i = 0; i < parts.length; i++) {
+                    if (i != largest && parts[i].length > 0) {
+                        ForwardBackwardTask task = new ForwardBackwardTask(parts[i], d + 1);
+                        task.fork();
+                        forked.add(task);
+                    }
+                }
+                current = parts[largest];
+                currentColor = current.length == 0 ? -1 : color[current[0]];
+            }
+            for (ForwardBackwardTask task : forked) {
+                task.join();
+            }
+        }
+    }
+
+    private class ReachTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CsrGraph direction;
+        private final int pivot;
+        private final int subproblemColor;
+        private final int[] mark;
+
+        ReachTask(CsrGraph direction, int pivot, int subproblemColor, int[] mark) {
+            this.direction = direction;
+            this.pivot = pivot;
+            this.subproblemColor = subproblemColor;
+            this.mark = mark;
+        }
+
+        @Override
+        protected void compute() {
+            IntList queue = new IntList();
+            long explored = 0;
+            mark[pivot] = subproblemColor;
+            queue.add(pivot);
+            for (int head = 0; head < queue.size(); head++) {
+                int u = queue.get(head);
+                for (int e = direction.edgeStart(u); e < direction.edgeEnd(u); e++) {
+                    explored++;
+                    int w = direction.target(e);
+                    // Trimmed vertices are singletons off every cycle; walking them only costs time
+                    if (color[w] == subproblemColor && component[w] == -1 && mark[w] != subproblemColor) {
+                        mark[w] = subproblemColor;
+                        queue.add(w);
+                    }
+                }
+            }
+            visits.add(queue.size());
+            edgesExplored.add(explored);
+        }
+    }
+
+    /**
+     * Marks the pivot's SCC and returns the forward-only, backward-only and remaining vertices,
+     * each recolored as a fresh subproblem.
+     */
+    private int[][] splitAroundPivot(int[] vertices, int subproblemColor) {
+        int pivot = vertices[0];
+        long best = -1;
+        for (int v : vertices) {
+            long score = (graph.degree(v) + 1L) * (reverse.degree(v) + 1L);
+            if (score > best) {
+                best = score;
+                pivot = v;
+            }
+        }
+
+        RecursiveAction.invokeAll(new ReachTask(graph, pivot, subproblemColor, forwardMark),
+                new ReachTask(reverse, pivot, subproblemColor, backwardMark));
+
+        int forwardColor = nextColor.getAndIncrement();
+        int backwardColor = nextColor.getAndIncrement();
+        int restColor = nextColor.getAndIncrement();
+        int comp = nextComponent.getAndIncrement();
+        IntList forwardOnly = new IntList();
+        IntList backwardOnly = new IntList();
+        IntList rest = new IntList();
+        for (int v : vertices) {
+            boolean forward = forwardMark[v] == subproblemColor;
+            boolean backward = backwardMark[v] == subproblemColor;
+            if (forward && backward) {
+                component[v] = comp;
+            } else if (forward) {
+                color[v] = forwardColor;
+                forwardOnly.add(v);
+            } else if (backward) {
+                color[v] = backwardColor;
+                backwardOnly.add(v);
+            } else {
+                color[v] = restColor;
+                rest.add(v);
+            }
+        }
+        return new int[][]{forwardOnly.toArray(), backwardOnly.toArray(), rest.toArray()};
+    }
+
+    /**
+     * Sequential trim restricted to one subproblem: peels vertices without in- or out-edges inside
+     * it as singleton SCCs and returns the rest.
+     */
+    private int[] trimSubproblem(int[] vertices, int subproblemColor) {
+        IntList queue = new IntList();
+        long explored = 0;
+        for (int v : vertices) {
+            int in = 0;
+            for (int e = reverse.edgeStart(v); e < reverse.edgeEnd(v); e++) {
+                int w = reverse.target(e);
+                if (color[w] == subproblemColor && component[w] == -1) in++;
+            }
+            int out = 0;
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                int w = graph.target(e);
+                if (color[w] == subproblemColor && component[w] == -1) out++;
+            }
+            explored += graph.degree(v) + reverse.degree(v);
+            inDegree[v] = in;
+            outDegree[v] = out;
+        }
+        for (int v : vertices) {
+            if (inDegree[v] == 0 || outDegree[v] == 0) {
+                component[v] = nextComponent.getAndIncrement();
+                queue.add(v);
+            }
+        }
+        for (int head = 0; head < queue.size(); head++) {
+            int v = queue.get(head);
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                int w = graph.target(e);
+                if (color[w] == subproblemColor && component[w] == -1 && --inDegree[w] == 0) {
+                    component[w] = nextComponent.getAndIncrement();
+                    queue.add(w);
+                }
+            }
+            for (int e = reverse.edgeStart(v); e < reverse.edgeEnd(v); e++) {
+                int p = reverse.target(e);
+                if (color[p] == subproblemColor && component[p] == -1 && --outDegree[p] == 0) {
+                    component[p] = nextComponent.getAndIncrement();
+                    queue.add(p);
+                }
+            }
+            explored += graph.degree(v) + reverse.degree(v);
+        }
+        visits.add(queue.size());
+        edgesExplored.add(explored);
+        if (queue.size() == 0) {
+            return vertices;
+        }
+        IntList rest = new IntList(vertices.length - queue.size());
+        for (int v : vertices) {
+            if (component[v] == -1) {
+                rest.add(v);
+            }
+        }
+        return rest.toArray();
+    }
+
+    /**
+     * Iterative Tarjan over the vertices of one subproblem, ignoring edges that leave it.
+     */
+    private void restrictedTarjan(int[] vertices, int subproblemColor) {
+        for (int v : vertices) {
+            ids[v] = -1;
+        }
+        int[] sccStack = new int[vertices.length];
+        int[] callStack = new int[vertices.length];
+        int sccTop = 0;
+        int callTop = 0;
+        int nextId = 0;
+        long explored = 0;
+
+        for (int root : vertices) {
+            if (ids[root] != -1) {
+                continue;
+            }
+            ids[root] = lowLink[root] = nextId++;
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+            edgeCursor[root] = graph.edgeStart(root);
+            callStack[callTop++] = root;
+
+            while (callTop > 0) {
+                int at = callStack[callTop - 1];
+                if (edgeCursor[at] < graph.edgeEnd(at)) {
+                    int to = graph.target(edgeCursor[at]++);
+                    explored++;
+                    if (color[to] != subproblemColor || component[to] != -1) {
+                        continue;
+                    }
+                    if (ids[to] == -1) {
+                        ids[to] = lowLink[to] = nextId++;
+                        sccStack[sccTop++] = to;
+                        onStack[to] = true;
+                        edgeCursor[to] = graph.edgeStart(to);
+                        callStack[callTop++] = to;
+                    } else if (onStack[to]) {
+                        lowLink[at] = Math.min(lowLink[at], lowLink[to]);
+                    }
+                    continue;
+                }
+
+                if (ids[at] == lowLink[at]) {
+                    int comp = nextComponent.getAndIncrement();
+                    while (true) {
+                        int node = sccStack[--sccTop];
+                        onStack[node] = false;
+                        component[node] = comp;
+                        if (node == at) break;
+                    }
+                }
+                callTop--;
+                if (callTop > 0 && onStack[at]) {
+                    int parent = callStack[callTop - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[at]);
+                }
+            }
+        }
+        visits.add(vertices.length);
+        edgesExplored.add(explored);
+    }
+
+    /**
+     * Coloring rounds over every still-unassigned vertex. Labels travel one edge per pass against
+     * the id order, so long chains need one pass per vertex: a round that has not settled after
+     * {@code MAX_PROPAGATION_PASSES} passes, or the remainder after {@code MAX_COLORING_ROUNDS}
+     * rounds, goes to forward-backward-trim instead.
+     */
+    private void runColoring(int[] remaining) {
+        int n = graph.getN();
+        AtomicIntegerArray label = new AtomicIntegerArray(n);
+        int rounds = 0;
+
+        while (remaining.length > 0) {
+            if (++rounds > MAX_COLORING_ROUNDS) {
+                forwardBackward(remaining);
+                return;
+            }
+
+            final int[] current = remaining;
+            for (int v : current) {
+                label.set(v, v);
+            }
+
+            // Propagate the maximum label forward until stable
+            AtomicBoolean changed = new AtomicBoolean(true);
+            int passes = 0;
+            while (changed.get()) {
+                if (++passes > MAX_PROPAGATION_PASSES) {
+                    forwardBackward(current);
+                    return;
+                }
+                changed.set(false);
+                ParallelRange.forEach(pool, 0, current.length, GRAIN, (from, to) -> {
+                    long explored = 0;
+                    boolean localChange = false;
+                    for (int i = from; i < to; i++) {
+                        int u = current[i];
+                        int lu = label.get(u);
+                        for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                            explored++;
+                            int w = graph.target(e);
+                            if (component[w] != -1) {
+                                continue;
+                            }
+                            int lw = label.get(w);
+                            while (lu > lw) {
+                                if (label.compareAndSet(w, lw, lu)) {
+                                    localChange = true;
+                                    break;
+                                }
+                                lw = label.get(w);
+                            }
+                        }
+                    }
+                    edgesExplored.add(explored);
+                    if (localChange) {
+                        changed.set(true);
+                    }
+                });
+            }
+
+            // Each label root owns the vertices of its label that reach it
+            IntList rootList = new IntList();
+            for (int v : current) {
+                if (label.get(v) == v) {
+                    rootList.add(v);
+                }
+            }
+            int[] roots = rootList.toArray();
+            ParallelRange.forEach(pool, 0, roots.length, 64, (from, to) -> {
+                IntList queue = new IntList();
+                long explored = 0;
+                for (int i = from; i < to; i++) {
+                    int root = roots[i];
+                    int comp = nextComponent.getAndIncrement();
+                    queue.clear();
+                    component[root] = comp;
+                    queue.add(root);
+                    for (int head = 0; head < queue.size(); head++) {
+                        int u = queue.get(head);
+                        for (int e = reverse.edgeStart(u); e < reverse.edgeEnd(u); e++) {
+                            explored++;
+                            int w = reverse.target(e);
+                            if (label.get(w) == root && component[w] == -1) {
+                                component[w] = comp;
+                                queue.add(w);
+                            }
+                        }
+                    }
+                    visits.add(queue.size());
+                }
+                edgesExplored.add(explored);
+            });
+
+            IntList next = new IntList();
+            for (int v : current) {
+                if (component[v] == -1) {
+                    next.add(v);
+                }
+            }
+            remaining = next.toArray();
+        }
+    }
+
+    private void forwardBackward(int[] vertices) {
+        int fallbackColor = nextColor.getAndIncrement();
+        for (int v : vertices) {
+            color[v] = fallbackColor;
+        }
+        new ForwardBackwardTask(vertices, fallbackColor, 0, false).compute();
+    }
+
+    private int[] unassigned(int[][] parts) {
+        IntList rest = new IntList();
+        for (int[] part : parts) {
+            for (int v : part) {
+                rest.add(v);
+            }
+        }
+        return rest.toArray();
+    }
+}
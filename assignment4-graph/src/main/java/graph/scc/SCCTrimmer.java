@@ -0,0 +1,130 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.IntList;
+import graph.common.ParallelRange;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parallel trim stage: repeatedly peels vertices whose in-degree or out-degree among the
+ * remaining vertices is zero. Such a vertex cannot lie on a cycle, so each one is a singleton SCC
+ * and only the residual core has to go through an SCC engine.
+ */
+public class SCCTrimmer {
+    private static final int GRAIN = 1024;
+
+    private final CsrGraph graph;
+    private final CsrGraph reverse;
+    private final ForkJoinPool pool;
+
+    public SCCTrimmer(Graph graph) {
+        this(CsrGraph.fromGraph(graph));
+    }
+
+    public SCCTrimmer(CsrGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public SCCTrimmer(CsrGraph graph, ForkJoinPool pool) {
+        this(graph, null, pool);
+    }
+
+    /**
+     * Reuses an already built reverse graph; null builds it on each {@link #trim()}.
+     */
+    SCCTrimmer(CsrGraph graph, CsrGraph reverse, ForkJoinPool pool) {
+        this.graph = graph;
+        this.reverse = reverse;
+        this.pool = pool;
+    }
+
+    public TrimResult trim() {
+        int n = graph.getN();
+        CsrGraph reverse = this.reverse != null ? this.reverse : graph.reverse();
+        AtomicIntegerArray inDegree = new AtomicIntegerArray(n);
+        AtomicIntegerArray outDegree = new AtomicIntegerArray(n);
+        AtomicIntegerArray claimed = new AtomicIntegerArray(n);
+
+        long startTime = System.nanoTime();
+
+        ParallelRange.forEach(pool, 0, n, GRAIN, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                inDegree.set(v, reverse.degree(v));
+                outDegree.set(v, graph.degree(v));
+            }
+        });
+
+        // Initial frontier: every vertex that is already a source or a sink
+        int[] frontier = collect(n, (v, out) -> {
+            if ((inDegree.get(v) == 0 || outDegree.get(v) == 0) && claimed.compareAndSet(v, 0, 1)) {
+                out.add(v);
+            }
+        });
+
+        IntList peeled = new IntList();
+        int rounds = 0;
+        while (frontier.length > 0) {
+            rounds++;
+            for (int v : frontier) {
+                peeled.add(v);
+            }
+            final int[] current = frontier;
+            frontier = collect(current.length, (i, out) -> {
+                int v = current[i];
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                    int w = graph.target(e);
+                    if (inDegree.decrementAndGet(w) == 0 && claimed.compareAndSet(w, 0, 1)) {
+                        out.add(w);
+                    }
+                }
+                for (int e = reverse.edgeStart(v); e < reverse.edgeEnd(v); e++) {
+                    int p = reverse.target(e);
+                    if (outDegree.decrementAndGet(p) == 0 && claimed.compareAndSet(p, 0, 1)) {
+                        out.add(p);
+                    }
+                }
+            });
+        }
+
+        boolean[] removed = new boolean[n];
+        for (int i = 0; i < peeled.size(); i++) {
+            removed[peeled.get(i)] = true;
+        }
+
+        long endTime = System.nanoTime();
+        return new TrimResult(removed, peeled.toArray(), rounds, endTime - startTime);
+    }
+
+    /**
+     * Gathers the next frontier from per-chunk buffers and sorts it so the peel order does not
+     * depend on thread scheduling.
+     */
+    private int[] collect(int count, ParallelRange.Producer producer) {
+        int[] result = ParallelRange.gather(pool, count, GRAIN, producer);
+        Arrays.sort(result);
+        return result;
+    }
+
+    public static class TrimResult {
+        /** removed[v] is true when v was peeled as a singleton SCC. */
+        public final boolean[] removed;
+        /** Peeled vertices in peel order, ascending within each round. */
+        public final int[] peeled;
+        public final int rounds;
+        public final long elapsedNanos;
+
+        public TrimResult(boolean[] removed, int[] peeled, int rounds, long elapsedNanos) {
+            this.removed = removed;
+            this.peeled = peeled;
+            this.rounds = rounds;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getRemovedCount() {
+            return peeled.length;
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package graph.scc;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
 import java.util.*;
 
 public class TarjanSCC {
-    private final Graph graph;
+    private final CsrGraph graph;
     private final SCCMetrics metrics;
     
     private int[] lowLink;
@@ -13,12 +14,25 @@ public class TarjanSCC {
     private Deque<Integer> stack;
     private int id;
     private List<List<Integer>> sccs;
+    private boolean trimming = false;
     
     public TarjanSCC(Graph graph) {
+        this(CsrGraph.fromGraph(graph));
+    }
+
+    public TarjanSCC(CsrGraph graph) {
         this.graph = graph;
         this.metrics = new SCCMetrics();
     }
 
+    /**
+     * Opt-in trim stage: when enabled, {@link SCCTrimmer} peels sources and sinks first and
+     * only the residual core is searched. Peeled vertices are reported first as singleton SCCs.
+     */
+    public void setTrimming(boolean trimming) {
+        this.trimming = trimming;
+    }
+
     public List<List<Integer>> findSCCs() {
         int n = graph.getN();
         lowLink = new int[n];
@@ -32,6 +46,14 @@ public class TarjanSCC {
         
         long startTime = System.nanoTime();
         metrics.reset();
+        SCCTrimmer.TrimResult trim = applyTrim();
+        if (trim != null) {
+            for (int v : trim.peeled) {
+                List<Integer> scc = new ArrayList<>(1);
+                scc.add(v);
+                sccs.add(scc);
+            }
+        }
         
         // Run DFS from all unvisited nodes
         for (int i = 0; i < n; i++) {
@@ -46,6 +68,124 @@ public class TarjanSCC {
         return sccs;
     }
     
+    /**
+     * Explicit-stack variant of {@link #findSCCs()} for deep graphs.
+     * Keeps a per-vertex edge cursor instead of recursing, so long chains do not overflow the
+     * thread stack, and returns the same components in the same order.
+     */
+    public List<List<Integer>> findSCCsIterative() {
+        sccs = findComponents().toLists();
+        return sccs;
+    }
+    
+    /**
+     * Same search as {@link #findSCCsIterative()} with primitive output: no boxed vertex ids
+     * and O(1) component lookup through {@link Components#componentOf}.
+     */
+    public Components findComponents() {
+        int n = graph.getN();
+        lowLink = new int[n];
+        ids = new int[n];
+        onStack = new boolean[n];
+        int[] sccStack = new int[n];
+        int[] callStack = new int[n];
+        int[] edgeCursor = new int[n];
+        int sccTop = 0;
+        int callTop = 0;
+        
+        int[] componentOf = new int[n];
+        int[] members = new int[n];
+        int[] memberOffsets = new int[n + 1];
+        int count = 0;
+        int filled = 0;
+        
+        Arrays.fill(ids, -1);
+        id = 0;
+        
+        long startTime = System.nanoTime();
+        metrics.reset();
+        SCCTrimmer.TrimResult trim = applyTrim();
+        if (trim != null) {
+            for (int v : trim.peeled) {
+                componentOf[v] = count;
+                members[filled++] = v;
+                memberOffsets[++count] = filled;
+            }
+        }
+        
+        for (int root = 0; root < n; root++) {
+            if (ids[root] != -1) {
+                continue;
+            }
+            metrics.dfsVisits++;
+            ids[root] = lowLink[root] = id++;
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+            edgeCursor[root] = graph.edgeStart(root);
+            callStack[callTop++] = root;
+            
+            while (callTop > 0) {
+                int at = callStack[callTop - 1];
+                if (edgeCursor[at] < graph.edgeEnd(at)) {
+                    int to = graph.target(edgeCursor[at]++);
+                    metrics.edgesExplored++;
+                    if (ids[to] == -1) {
+                        // Descend; the parent is updated when the child is popped
+                        metrics.dfsVisits++;
+                        ids[to] = lowLink[to] = id++;
+                        sccStack[sccTop++] = to;
+                        onStack[to] = true;
+                        edgeCursor[to] = graph.edgeStart(to);
+                        callStack[callTop++] = to;
+                    } else if (onStack[to]) {
+                        lowLink[at] = Math.min(lowLink[at], lowLink[to]);
+                    }
+                    continue;
+                }
+                
+                // All edges done: emit SCC if root, then return to the parent
+                if (ids[at] == lowLink[at]) {
+                    while (true) {
+                        int node = sccStack[--sccTop];
+                        onStack[node] = false;
+                        componentOf[node] = count;
+                        members[filled++] = node;
+                        if (node == at) break;
+                    }
+                    memberOffsets[++count] = filled;
+                    metrics.sccCount++;
+                }
+                callTop--;
+                if (callTop > 0 && onStack[at]) {
+                    int parent = callStack[callTop - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[at]);
+                }
+            }
+        }
+        
+        long endTime = System.nanoTime();
+        metrics.setElapsedTime(endTime - startTime);
+        
+        return new Components(componentOf, count, members, Arrays.copyOf(memberOffsets, count + 1));
+    }
+    
+    /**
+     * Runs the trim stage if enabled. Peeled vertices get an id and are never on the stack,
+     * so the DFS neither starts from them nor lets them affect low-links.
+     */
+    private SCCTrimmer.TrimResult applyTrim() {
+        if (!trimming) {
+            return null;
+        }
+        SCCTrimmer.TrimResult trim = new SCCTrimmer(graph).trim();
+        for (int v : trim.peeled) {
+            ids[v] = lowLink[v] = id++;
+        }
+        metrics.trimmedVertices = trim.getRemovedCount();
+        metrics.sccCount += trim.getRemovedCount();
+        return trim;
+    }
+    
     private void dfs(int at) {
         metrics.dfsVisits++;
         
@@ -54,9 +194,9 @@ public class TarjanSCC {
         onStack[at] = true;
         
         // Visit all neighbors
-        for (Graph.Edge edge : graph.getNeighbors(at)) {
+        for (int e = graph.edgeStart(at); e < graph.edgeEnd(at); e++) {
             metrics.edgesExplored++;
-            int to = edge.to;
+            int to = graph.target(e);
             
             if (ids[to] == -1) {
                 dfs(to);
@@ -81,8 +221,16 @@ public class TarjanSCC {
     }
 
     public CondensationGraph buildCondensation(List<List<Integer>> sccs) {
+        return buildCondensation(sccs, CondensationBuilder.WeightAggregation.FIRST);
+    }
+
+    /**
+     * Builds the condensation, combining parallel inter-component edges with the given aggregation
+     * (MIN for shortest-path runs, MAX for longest-path runs).
+     */
+    public CondensationGraph buildCondensation(List<List<Integer>> sccs,
+                                               CondensationBuilder.WeightAggregation aggregation) {
         int n = graph.getN();
-        int numSCCs = sccs.size();
         
         // Map each vertex to its SCC index
         int[] vertexToSCC = new int[n];
@@ -92,25 +240,16 @@ public class TarjanSCC {
             }
         }
         
-        // Build condensation graph
-        Graph condensation = new Graph(numSCCs, true);
-        Set<String> addedEdges = new HashSet<>();
-        
-        for (int u = 0; u < n; u++) {
-            int sccU = vertexToSCC[u];
-            for (Graph.Edge edge : graph.getNeighbors(u)) {
-                int sccV = vertexToSCC[edge.to];
-                if (sccU != sccV) {
-                    String edgeKey = sccU + "->" + sccV;
-                    if (!addedEdges.contains(edgeKey)) {
-                        condensation.addEdge(sccU, sccV, edge.weight);
-                        addedEdges.add(edgeKey);
-                    }
-                }
-            }
-        }
-        
-        return new CondensationGraph(condensation, sccs, vertexToSCC);
+        return new CondensationBuilder(graph, vertexToSCC, sccs.size())
+                .aggregation(aggregation)
+                .build(sccs);
+    }
+    
+    /**
+     * Condensation straight from primitive components; no vertex-to-SCC remapping pass.
+     */
+    public Graph buildCondensation(Components components) {
+        return new CondensationBuilder(graph, components).buildGraph();
     }
     
     public SCCMetrics getMetrics() {
@@ -129,10 +268,65 @@ public class TarjanSCC {
         }
     }
     
+    /**
+     * Compact SCC output: component of every vertex, plus the members of component c stored in
+     * {@code members[memberOffsets[c] .. memberOffsets[c + 1])}.
+     */
+    public static class Components {
+        public final int[] componentOf;
+        public final int count;
+        public final int[] members;
+        public final int[] memberOffsets;
+        
+        public Components(int[] componentOf, int count, int[] members, int[] memberOffsets) {
+            this.componentOf = componentOf;
+            this.count = count;
+            this.members = members;
+            this.memberOffsets = memberOffsets;
+        }
+        
+        /**
+         * Groups vertices by component id with a counting sort, members ascending.
+         */
+        public static Components fromComponentOf(int[] componentOf, int count) {
+            int n = componentOf.length;
+            int[] memberOffsets = new int[count + 1];
+            for (int v = 0; v < n; v++) {
+                memberOffsets[componentOf[v] + 1]++;
+            }
+            for (int c = 0; c < count; c++) {
+                memberOffsets[c + 1] += memberOffsets[c];
+            }
+            int[] cursor = Arrays.copyOf(memberOffsets, count);
+            int[] members = new int[n];
+            for (int v = 0; v < n; v++) {
+                members[cursor[componentOf[v]]++] = v;
+            }
+            return new Components(componentOf, count, members, memberOffsets);
+        }
+        
+        public int size(int component) {
+            return memberOffsets[component + 1] - memberOffsets[component];
+        }
+        
+        public List<List<Integer>> toLists() {
+            List<List<Integer>> lists = new ArrayList<>(count);
+            for (int c = 0; c < count; c++) {
+                List<Integer> scc = new ArrayList<>(size(c));
+                for (int i = memberOffsets[c]; i < memberOffsets[c + 1]; i++) {
+                    scc.add(members[i]);
+                }
+                lists.add(scc);
+            }
+            return lists;
+        }
+    }
+    
     public static class SCCMetrics implements graph.common.MetricsInterface {
         public int dfsVisits = 0;
         public int edgesExplored = 0;
         public int sccCount = 0;
+        public int trimmedVertices = 0;
         private long elapsedTime = 0;
         
         @Override
@@ -140,6 +334,7 @@ public class TarjanSCC {
             dfsVisits = 0;
             edgesExplored = 0;
             sccCount = 0;
+            trimmedVertices = 0;
             elapsedTime = 0;
         }
         
@@ -155,6 +350,10 @@ public class TarjanSCC {
         
         @Override
         public String getSummary() {
+            if (trimmedVertices > 0) {
+                return String.format("DFS Visits: %d, Edges Explored: %d, SCCs Found: %d, Trimmed: %d, Time: %.3f ms",
+                        dfsVisits, edgesExplored, sccCount, trimmedVertices, elapsedTime / 1_000_000.0);
+            }
             return String.format("DFS Visits: %d, Edges Explored: %d, SCCs Found: %d, Time: %.3f ms",
                     dfsVisits, edgesExplored, sccCount, elapsedTime / 1_000_000.0);
         }
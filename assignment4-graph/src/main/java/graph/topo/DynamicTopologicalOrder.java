@@ -0,0 +1,245 @@
+package graph.topo;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.common.IntList;
+import java.util.Arrays;
+
+/**
+ * Topological order maintained under edge insertions (Pearce-Kelly).
+ * Inserting u -> v only touches the vertices whose position lies between v and u and that are
+ * reachable from v or reach u; everything outside that region keeps its position.
+ * An insertion that would close a cycle is rejected and leaves the order unchanged.
+ * Removing an edge never invalidates the order, so removals only update the adjacency.
+ */
+public class DynamicTopologicalOrder {
+    private final int n;
+    private final IntList[] outgoing;
+    private final IntList[] incoming;
+    private final int[] position;
+    private final int[] vertexAt;
+    private final boolean[] visited;
+    private int edgeCount = 0;
+    private int[] lastMoved = new int[0];
+
+    public DynamicTopologicalOrder(Graph graph) {
+        this(CsrGraph.fromGraph(graph));
+    }
+
+    public DynamicTopologicalOrder(CsrGraph graph) {
+        this.n = graph.getN();
+        this.outgoing = new IntList[n];
+        this.incoming = new IntList[n];
+        this.position = new int[n];
+        this.vertexAt = new int[n];
+        this.visited = new boolean[n];
+
+        if (!new TopologicalSort(graph).sortDFS(vertexAt)) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG");
+        }
+        for (int i = 0; i < n; i++) {
+            position[vertexAt[i]] = i;
+            outgoing[i] = new IntList(Math.max(graph.degree(i), 4));
+            incoming[i] = new IntList(4);
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                outgoing[u].add(graph.target(e));
+                incoming[graph.target(e)].add(u);
+                edgeCount++;
+            }
+        }
+    }
+
+    /**
+     * Inserts u -> v and repairs the order.
+     * Returns false, without inserting, if the edge would create a cycle.
+     */
+    public boolean addEdge(int u, int v) {
+        lastMoved = new int[0];
+        if (u == v) {
+            return false;
+        }
+        int lower = position[v];
+        int upper = position[u];
+        if (lower > upper) {
+            link(u, v);
+            return true;
+        }
+
+        IntList forward = new IntList();
+        if (!collectForward(v, upper, forward)) {
+            clear(forward);
+            return false; // u is reachable from v
+        }
+        IntList backward = new IntList();
+        collectBackward(u, lower, backward);
+        clear(forward);
+        clear(backward);
+
+        reorder(backward, forward);
+        link(u, v);
+        return true;
+    }
+
+    /**
+     * Removes one u -> v edge. Returns false if there is none.
+     */
+    public boolean removeEdge(int u, int v) {
+        lastMoved = new int[0];
+        if (!removeOne(outgoing[u], v)) {
+            return false;
+        }
+        removeOne(incoming[v], u);
+        edgeCount--;
+        return true;
+    }
+
+    /**
+     * Current order, vertexAt[i] being the vertex at position i. Shared, not copied: read only.
+     */
+    public int[] order() {
+        return vertexAt;
+    }
+
+    /**
+     * Current position of every vertex. Shared, not copied: read only.
+     */
+    public int[] positions() {
+        return position;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Number of vertices whose position was reassigned by the last {@link #addEdge} call.
+     */
+    public int getLastAffected() {
+        return lastMoved.length;
+    }
+
+    /**
+     * Vertices whose position was reassigned by the last {@link #addEdge} call, in their new order.
+     */
+    public int[] getLastMoved() {
+        return lastMoved;
+    }
+
+    private void link(int u, int v) {
+        outgoing[u].add(v);
+        incoming[v].add(u);
+        edgeCount++;
+    }
+
+    private static boolean removeOne(IntList list, int value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                list.set(i, list.get(list.size() - 1));
+                list.removeLast();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vertices reachable from start with position at most upper. Returns false on reaching upper,
+     * which is the tail of the new edge.
+     */
+    private boolean collectForward(int start, int upper, IntList found) {
+        IntList stack = new IntList();
+        visited[start] = true;
+        found.add(start);
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            int x = stack.removeLast();
+            IntList next = outgoing[x];
+            for (int i = 0; i < next.size(); i++) {
+                int w = next.get(i);
+                if (position[w] == upper) {
+                    return false;
+                }
+                if (!visited[w] && position[w] < upper) {
+                    visited[w] = true;
+                    found.add(w);
+                    stack.add(w);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vertices that reach start with position greater than lower.
+     */
+    private void collectBackward(int start, int lower, IntList found) {
+        IntList stack = new IntList();
+        visited[start] = true;
+        found.add(start);
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            int x = stack.removeLast();
+            IntList prev = incoming[x];
+            for (int i = 0; i < prev.size(); i++) {
+                int w = prev.get(i);
+                if (!visited[w] && position[w] > lower) {
+                    visited[w] = true;
+                    found.add(w);
+                    stack.add(w);
+                }
+            }
+        }
+    }
+
+    private void clear(IntList vertices) {
+        for (int i = 0; i < vertices.size(); i++) {
+            visited[vertices.get(i)] = false;
+        }
+    }
+
+    /**
+     * Places the backward set before the forward set, reusing the positions both sets occupied.
+     */
+    private void reorder(IntList backward, IntList forward) {
+        int[] back = sortByPosition(backward);
+        int[] fwd = sortByPosition(forward);
+        int total = back.length + fwd.length;
+        int[] moved = new int[total];
+        int[] slots = new int[total];
+        for (int i = 0; i < back.length; i++) {
+            slots[i] = position[back[i]];
+        }
+        for (int i = 0; i < fwd.length; i++) {
+            slots[back.length + i] = position[fwd[i]];
+        }
+        Arrays.sort(slots);
+
+        for (int i = 0; i < total; i++) {
+            int vertex = i < back.length ? back[i] : fwd[i - back.length];
+            position[vertex] = slots[i];
+            vertexAt[slots[i]] = vertex;
+            moved[i] = vertex;
+        }
+        lastMoved = moved;
+    }
+
+    private int[] sortByPosition(IntList vertices) {
+        long[] keyed = new long[vertices.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            int v = vertices.get(i);
+            keyed[i] = ((long) position[v] << 32) | v;
+        }
+        Arrays.sort(keyed);
+        int[] sorted = new int[keyed.length];
+        for (int i = 0; i < keyed.length; i++) {
+            sorted[i] = (int) keyed[i];
+        }
+        return sorted;
+    }
+}
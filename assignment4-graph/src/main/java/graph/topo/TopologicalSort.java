@@ -1,18 +1,54 @@
 package graph.topo;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
+import graph.common.ParallelRange;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class TopologicalSort {
-    private final Graph graph;
+    private static final int LEVEL_GRAIN = 1024;
+    
+    private static final byte WHITE = 0;
+    private static final byte GRAY = 1;
+    private static final byte BLACK = 2;
+    
+    private final CsrGraph graph;
     private final TopoMetrics metrics;
     
+    // DFS workspace, allocated once and reused by sortDFS
+    private byte[] state;
+    private int[] callStack;
+    private int[] edgeCursor;
+    
     public TopologicalSort(Graph graph) {
+        this(CsrGraph.fromGraph(graph));
+    }
+
+    public TopologicalSort(CsrGraph graph) {
         this.graph = graph;
         this.metrics = new TopoMetrics();
     }
 
     public List<Integer> sort() {
+        int[] order = sortToArray();
+        if (order == null) {
+            return Collections.emptyList();
+        }
+        
+        List<Integer> topoOrder = new ArrayList<>(order.length);
+        for (int v : order) {
+            topoOrder.add(v);
+        }
+        return topoOrder;
+    }
+    
+    /**
+     * Kahn's algorithm with the output array doubling as the FIFO queue.
+     * Same order as {@link #sort()}; returns null if the graph has a cycle.
+     */
+    public int[] sortToArray() {
         int n = graph.getN();
         int[] inDegree = new int[n];
         
@@ -21,32 +57,31 @@ public class TopologicalSort {
         
         // Calculate in-degrees
         for (int u = 0; u < n; u++) {
-            for (Graph.Edge edge : graph.getNeighbors(u)) {
-                inDegree[edge.to]++;
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                inDegree[graph.target(e)]++;
             }
         }
         
         // Initialize queue with vertices having in-degree 0
-        Queue<Integer> queue = new LinkedList<>();
+        int[] order = new int[n];
+        int tail = 0;
         for (int i = 0; i < n; i++) {
             if (inDegree[i] == 0) {
-                queue.offer(i);
+                order[tail++] = i;
                 metrics.pushes++;
             }
         }
         
-        List<Integer> topoOrder = new ArrayList<>();
-        
-        while (!queue.isEmpty()) {
-            int u = queue.poll();
+        for (int head = 0; head < tail; head++) {
+            int u = order[head];
             metrics.pops++;
-            topoOrder.add(u);
             
             // Reduce in-degree for neighbors
-            for (Graph.Edge edge : graph.getNeighbors(u)) {
-                inDegree[edge.to]--;
-                if (inDegree[edge.to] == 0) {
-                    queue.offer(edge.to);
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                int v = graph.target(e);
+                inDegree[v]--;
+                if (inDegree[v] == 0) {
+                    order[tail++] = v;
                     metrics.pushes++;
                 }
             }
@@ -56,64 +91,184 @@ public class TopologicalSort {
         metrics.setElapsedTime(endTime - startTime);
         
         // If not all vertices are in the order, there's a cycle
-        if (topoOrder.size() != n) {
-            return Collections.emptyList();
-        }
-        
-        return topoOrder;
+        return tail == n ? order : null;
     }
-
-    public List<Integer> sortDFS() {
+    
+    public LevelOrder sortByLevels() {
+        return sortByLevels(ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Level-synchronous Kahn's algorithm. Level 0 holds the vertices with in-degree 0 and level k + 1
+     * the vertices whose last predecessor is in level k. Each level is processed in parallel with
+     * atomic in-degree decrements, and the next frontier is gathered from per-chunk buffers and
+     * sorted, so the result is deterministic. Returns an empty order if the graph has a cycle.
+     */
+    public LevelOrder sortByLevels(ForkJoinPool pool) {
         int n = graph.getN();
-        boolean[] visited = new boolean[n];
-        Deque<Integer> stack = new ArrayDeque<>();
+        AtomicIntegerArray inDegree = new AtomicIntegerArray(n);
         
         long startTime = System.nanoTime();
         metrics.reset();
         
-        for (int i = 0; i < n; i++) {
-            if (!visited[i]) {
-                if (!dfs(i, visited, stack, new boolean[n])) {
-                    return Collections.emptyList(); // Cycle detected
+        ParallelRange.forEach(pool, 0, n, LEVEL_GRAIN, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    inDegree.incrementAndGet(graph.target(e));
                 }
             }
+        });
+        
+        int[] frontier = ParallelRange.gather(pool, n, LEVEL_GRAIN, (v, out) -> {
+            if (inDegree.get(v) == 0) {
+                out.add(v);
+            }
+        });
+        
+        int[] order = new int[n];
+        int[] level = new int[n];
+        int[] levelOffsets = new int[n + 1];
+        int levels = 0;
+        int written = 0;
+        
+        while (frontier.length > 0) {
+            System.arraycopy(frontier, 0, order, written, frontier.length);
+            for (int v : frontier) {
+                level[v] = levels;
+            }
+            written += frontier.length;
+            levelOffsets[++levels] = written;
+            metrics.pushes += frontier.length;
+            metrics.pops += frontier.length;
+            
+            final int[] current = frontier;
+            frontier = ParallelRange.gather(pool, current.length, LEVEL_GRAIN, (i, out) -> {
+                int u = current[i];
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++) {
+                    int v = graph.target(e);
+                    if (inDegree.decrementAndGet(v) == 0) {
+                        out.add(v);
+                    }
+                }
+            });
+            Arrays.sort(frontier);
         }
         
         long endTime = System.nanoTime();
         metrics.setElapsedTime(endTime - startTime);
         
-        List<Integer> result = new ArrayList<>();
-        while (!stack.isEmpty()) {
-            result.add(stack.pop());
+        if (written != n) {
+            return new LevelOrder(new int[0], new int[0], new int[1]);
+        }
+        return new LevelOrder(order, level, Arrays.copyOf(levelOffsets, levels + 1));
+    }
+    
+    public List<Integer> sortDFS() {
+        int n = graph.getN();
+        int[] order = new int[n];
+        if (!sortDFS(order)) {
+            return Collections.emptyList(); // Cycle detected
+        }
+        
+        List<Integer> result = new ArrayList<>(n);
+        for (int v : order) {
+            result.add(v);
         }
         return result;
     }
     
-    private boolean dfs(int u, boolean[] visited, Deque<Integer> stack, boolean[] recStack) {
-        visited[u] = true;
-        recStack[u] = true;
-        metrics.pushes++;
-        
-        for (Graph.Edge edge : graph.getNeighbors(u)) {
-            if (!visited[edge.to]) {
-                if (!dfs(edge.to, visited, stack, recStack)) {
-                    return false;
+    /**
+     * Iterative DFS topological sort that writes the order into {@code order[0..n)}.
+     * Uses tri-color state and an explicit edge-cursor stack held in a workspace that is reused
+     * across calls. Returns false if the graph has a cycle; {@code order} is then unspecified.
+     */
+    public boolean sortDFS(int[] order) {
+        int n = graph.getN();
+        ensureWorkspace(n);
+        Arrays.fill(state, 0, n, WHITE);
+        
+        long startTime = System.nanoTime();
+        metrics.reset();
+        
+        // Finished vertices fill the order from the back, i.e. reverse post-order
+        int write = n;
+        for (int root = 0; root < n; root++) {
+            if (state[root] != WHITE) {
+                continue;
+            }
+            int top = 0;
+            state[root] = GRAY;
+            edgeCursor[root] = graph.edgeStart(root);
+            callStack[top++] = root;
+            metrics.pushes++;
+            
+            while (top > 0) {
+                int u = callStack[top - 1];
+                if (edgeCursor[u] < graph.edgeEnd(u)) {
+                    int v = graph.target(edgeCursor[u]++);
+                    if (state[v] == WHITE) {
+                        state[v] = GRAY;
+                        edgeCursor[v] = graph.edgeStart(v);
+                        callStack[top++] = v;
+                        metrics.pushes++;
+                    } else if (state[v] == GRAY) {
+                        return false; // Cycle detected
+                    }
+                    continue;
                 }
-            } else if (recStack[edge.to]) {
-                return false; // Cycle detected
+                state[u] = BLACK;
+                order[--write] = u;
+                metrics.pops++;
+                top--;
             }
         }
         
-        recStack[u] = false;
-        stack.push(u);
-        metrics.pops++;
+        long endTime = System.nanoTime();
+        metrics.setElapsedTime(endTime - startTime);
         return true;
     }
     
+    private void ensureWorkspace(int n) {
+        if (state == null || state.length < n) {
+            state = new byte[n];
+            callStack = new int[n];
+            edgeCursor = new int[n];
+        }
+    }
+    
     public TopoMetrics getMetrics() {
         return metrics;
     }
     
+    /**
+     * Topological order grouped by level: level k occupies
+     * {@code order[levelOffsets[k] .. levelOffsets[k + 1])}, and {@code level[v]} is the level of v.
+     * The level widths are the parallelism profile of the DAG.
+     */
+    public static class LevelOrder {
+        public final int[] order;
+        public final int[] level;
+        public final int[] levelOffsets;
+        
+        public LevelOrder(int[] order, int[] level, int[] levelOffsets) {
+            this.order = order;
+            this.level = level;
+            this.levelOffsets = levelOffsets;
+        }
+        
+        public int levelCount() {
+            return levelOffsets.length - 1;
+        }
+        
+        public int levelWidth(int k) {
+            return levelOffsets[k + 1] - levelOffsets[k];
+        }
+        
+        public boolean isEmpty() {
+            return order.length == 0;
+        }
+    }
+    
     public static class TopoMetrics implements graph.common.MetricsInterface {
         public int pushes = 0;
         public int pops = 0;
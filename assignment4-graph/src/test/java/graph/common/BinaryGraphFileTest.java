@@ -0,0 +1,105 @@
+package graph.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryGraphFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRoundTripThroughMapping() throws IOException {
+        CsrGraph.Builder builder = new CsrGraph.Builder(4, true);
+        builder.addEdge(0, 1, 2.5);
+        builder.addEdge(0, 2, 1);
+        builder.addEdge(2, 3, -4);
+        CsrGraph csr = builder.build();
+        GraphLoader.GraphData data = new GraphLoader.GraphData(7, csr, 2, "node", "sparse", "dag",
+                new double[]{1, 2, 3, 4});
+
+        String file = tempDir.resolve("graph.bin").toString();
+        BinaryGraphFile.write(file, data);
+        BinaryGraphFile.MappedGraph mapped = BinaryGraphFile.map(file);
+
+        assertEquals(4, mapped.getN());
+        assertEquals(3, mapped.getEdgeCount());
+        assertTrue(mapped.isDirected());
+        assertEquals(7, mapped.getId());
+        assertEquals(2, mapped.getSource());
+        assertEquals("node", mapped.getWeightModel());
+        assertEquals("sparse", mapped.getDensity());
+        assertEquals("dag", mapped.getVariant());
+        assertArrayEquals(new double[]{1, 2, 3, 4}, mapped.getDurations());
+        for (int u = 0; u < 4; u++) {
+            assertEquals(csr.edgeStart(u), mapped.edgeStart(u));
+            assertEquals(csr.edgeEnd(u), mapped.edgeEnd(u));
+        }
+
+        CsrGraph copy = mapped.toCsr();
+        for (int e = 0; e < 3; e++) {
+            assertEquals(csr.target(e), copy.target(e));
+            assertEquals(csr.weight(e), copy.weight(e));
+        }
+        assertTrue(mapped.toGraphData().isNodeWeighted());
+    }
+
+    @Test
+    public void testUndirectedGraphAndBadFiles() throws IOException {
+        Graph graph = new Graph(3, false);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 2, 2);
+        String file = tempDir.resolve("undirected.bin").toString();
+        BinaryGraphFile.write(file, graph);
+
+        BinaryGraphFile.MappedGraph mapped = BinaryGraphFile.map(file);
+        assertFalse(mapped.isDirected());
+        assertEquals(4, mapped.getEdgeCount());
+        assertNull(mapped.getDurations());
+        assertEquals(1, mapped.toCsr().toGraph().getNeighbors(0).size());
+
+        Path truncated = tempDir.resolve("truncated.bin");
+        byte[] bytes = Files.readAllBytes(Path.of(file));
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> BinaryGraphFile.map(truncated.toString()));
+
+        Path text = tempDir.resolve("text.bin");
+        Files.writeString(text, "{\"n\": 2, \"edges\": []} padding to header size");
+        assertThrows(IOException.class, () -> BinaryGraphFile.map(text.toString()));
+    }
+
+    @Test
+    public void testSectionsSpanSeveralPages() throws IOException {
+        java.util.Random random = new java.util.Random(3);
+        int n = 50;
+        CsrGraph.Builder builder = new CsrGraph.Builder(n, true);
+        for (int i = 0; i < 300; i++) {
+            builder.addEdge(random.nextInt(n), random.nextInt(n), random.nextDouble());
+        }
+        CsrGraph csr = builder.build();
+        double[] durations = new double[n];
+        for (int v = 0; v < n; v++) durations[v] = v * 0.5;
+        String file = tempDir.resolve("paged.bin").toString();
+        BinaryGraphFile.write(file, new GraphLoader.GraphData(1, csr, 0, "node", "dense", "random", durations));
+
+        // 64-byte pages split every section, the way 1 GB pages split files over 2 GB
+        BinaryGraphFile.MappedGraph mapped = BinaryGraphFile.map(file, 64);
+        CsrGraph copy = mapped.toCsr();
+        for (int u = 0; u < n; u++) {
+            assertEquals(csr.edgeStart(u), mapped.edgeStart(u));
+            assertEquals(csr.edgeEnd(u), copy.edgeEnd(u));
+        }
+        for (int e = 0; e < csr.getEdgeCount(); e++) {
+            assertEquals(csr.target(e), mapped.target(e));
+            assertEquals(csr.weight(e), mapped.weight(e));
+            assertEquals(csr.target(e), copy.target(e));
+            assertEquals(csr.weight(e), copy.weight(e));
+        }
+        assertArrayEquals(durations, mapped.getDurations());
+        assertThrows(IllegalArgumentException.class, () -> BinaryGraphFile.map(file, 48));
+    }
+}
@@ -0,0 +1,93 @@
+package graph.common;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsrGraphTest {
+
+    @Test
+    public void testFromGraphKeepsEdgeOrder() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 2, 5);
+        graph.addEdge(0, 1, 3);
+        graph.addEdge(2, 3, 1);
+
+        CsrGraph csr = CsrGraph.fromGraph(graph);
+
+        assertEquals(4, csr.getN());
+        assertEquals(3, csr.getEdgeCount());
+        assertEquals(2, csr.degree(0));
+        assertEquals(0, csr.degree(1));
+        assertEquals(2, csr.target(csr.edgeStart(0)));
+        assertEquals(1, csr.target(csr.edgeStart(0) + 1));
+        assertEquals(3, csr.weight(csr.edgeStart(0) + 1), 0.001);
+        assertEquals(2, csr.source(csr.edgeStart(2)));
+    }
+
+    @Test
+    public void testBuilderMatchesGraph() {
+        Graph graph = new Graph(3, false);
+        graph.addEdge(0, 1, 2);
+        graph.addEdge(1, 2, 4);
+
+        CsrGraph.Builder builder = new CsrGraph.Builder(3, false);
+        builder.addEdge(1, 2, 4);
+        builder.addEdge(0, 1, 2);
+        CsrGraph built = builder.build();
+        CsrGraph converted = CsrGraph.fromGraph(graph);
+
+        assertEquals(converted.getEdgeCount(), built.getEdgeCount());
+        for (int u = 0; u < 3; u++) {
+            assertEquals(converted.degree(u), built.degree(u));
+        }
+    }
+
+    @Test
+    public void testBuilderAcrossBlocksKeepsOrderAndMirrors() {
+        // More edges than one buffer block, with undirected edges mirrored by the sort
+        java.util.Random random = new java.util.Random(3);
+        int n = 1000;
+        for (boolean directed : new boolean[]{true, false}) {
+            Graph graph = new Graph(n, directed);
+            CsrGraph.Builder builder = new CsrGraph.Builder(n, directed, 10);
+            for (int i = 0; i < 150_000; i++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                graph.addEdge(u, v, i);
+                builder.addEdge(u, v, i);
+            }
+            assertEquals(directed ? 150_000 : 300_000, builder.getEdgeCount());
+            CsrGraph built = builder.build();
+            CsrGraph converted = CsrGraph.fromGraph(graph);
+            for (int u = 0; u < n; u++) {
+                assertEquals(converted.edgeStart(u), built.edgeStart(u));
+            }
+            for (int e = 0; e < converted.getEdgeCount(); e++) {
+                assertEquals(converted.target(e), built.target(e));
+                assertEquals(converted.weight(e), built.weight(e));
+            }
+            assertThrows(IllegalStateException.class, builder::build);
+        }
+    }
+
+    @Test
+    public void testReverse() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 2, 1);
+        graph.addEdge(1, 2, 7);
+
+        CsrGraph rev = CsrGraph.fromGraph(graph).reverse();
+
+        assertEquals(2, rev.degree(2));
+        assertEquals(0, rev.target(rev.edgeStart(2)));
+        assertEquals(1, rev.target(rev.edgeStart(2) + 1));
+        assertEquals(7, rev.weight(rev.edgeStart(2) + 1), 0.001);
+    }
+
+    @Test
+    public void testBuilderRejectsOutOfBoundsEdge() {
+        CsrGraph.Builder builder = new CsrGraph.Builder(2, true);
+        builder.addEdge(0, 5, 1);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+}
@@ -0,0 +1,126 @@
+package graph.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EdgeListLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String write(String name, String text) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, text);
+        return file.toString();
+    }
+
+    private static void assertSameGraph(CsrGraph expected, CsrGraph actual) {
+        assertEquals(expected.getN(), actual.getN());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        assertEquals(expected.isDirected(), actual.isDirected());
+        for (int u = 0; u < expected.getN(); u++) {
+            assertEquals(expected.edgeStart(u), actual.edgeStart(u));
+        }
+        for (int e = 0; e < expected.getEdgeCount(); e++) {
+            assertEquals(expected.target(e), actual.target(e));
+            assertEquals(expected.weight(e), actual.weight(e));
+        }
+    }
+
+    @Test
+    public void testFormatsHeaderAndComments() throws IOException {
+        String file = write("edges.txt", "# comment\n% another\n\n6\n"
+                + "0 1 2.5\n0\t2\t-1e3\r\n2 3\n3,4,.5\n  4 5 0.1 extra\n1 0 1.7976931348623157E308\n");
+        CsrGraph graph = EdgeListLoader.load(file, true);
+
+        CsrGraph.Builder expected = new CsrGraph.Builder(6, true);
+        expected.addEdge(0, 1, 2.5).addEdge(0, 2, -1000).addEdge(2, 3, 1).addEdge(3, 4, 0.5)
+                .addEdge(4, 5, 0.1).addEdge(1, 0, Double.MAX_VALUE);
+        assertSameGraph(expected.build(), graph);
+
+        // Without a header n comes from the largest vertex id
+        String noHeader = write("no_header.txt", "0 3 1\n");
+        assertEquals(4, EdgeListLoader.load(noHeader, true).getN());
+    }
+
+    @Test
+    public void testChunkedParallelLoadMatchesBuilder() throws IOException {
+        Random random = new Random(7);
+        int n = 300;
+        StringBuilder text = new StringBuilder("# generated\n" + n + "\n");
+        CsrGraph.Builder directed = new CsrGraph.Builder(n, true);
+        CsrGraph.Builder undirected = new CsrGraph.Builder(n, false);
+        for (int i = 0; i < 5000; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            double w = random.nextInt(100000) / 1000.0;
+            text.append(u).append(' ').append(v).append(' ').append(w).append('\n');
+            if (i % 500 == 0) {
+                text.append("# checkpoint\n");
+            }
+            directed.addEdge(u, v, w);
+            undirected.addEdge(u, v, w);
+        }
+        String file = write("random.txt", text.toString());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Tiny chunks force many boundaries, including inside the comment before the header
+            assertSameGraph(directed.build(), EdgeListLoader.load(file, true, pool, 7));
+            assertSameGraph(undirected.build(), EdgeListLoader.load(file, false, pool, 1024));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullPrecisionWeightsMatchParseDouble() throws IOException {
+        Random random = new Random(11);
+        int edges = 20000;
+        String[] weights = new String[edges];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < edges; i++) {
+            // 16-17 significant digits, the default output of Double.toString
+            double value = i % 2 == 0 ? random.nextDouble() : (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20);
+            weights[i] = Double.toString(value);
+            text.append(i % 50).append(' ').append(i % 37).append(' ').append(weights[i]).append('\n');
+        }
+        // Exactly halfway between two doubles, a subnormal and an 18-digit mantissa
+        String[] hard = {"9007199254740993", "4.9e-324", "123456789012345678e-10", "0.8444218515250481"};
+        for (String weight : hard) {
+            text.append("1 2 ").append(weight).append('\n');
+        }
+        CsrGraph graph = EdgeListLoader.load(write("precise.txt", text.toString()), true);
+
+        // Edges are grouped by source; walk each source's edges in file order
+        int[] next = new int[50];
+        for (int u = 0; u < 50; u++) next[u] = graph.edgeStart(u);
+        for (int i = 0; i < edges; i++) {
+            assertEquals(Double.parseDouble(weights[i]), graph.weight(next[i % 50]++), weights[i]);
+        }
+        for (String weight : hard) {
+            assertEquals(Double.parseDouble(weight), graph.weight(next[1]++), weight);
+        }
+    }
+
+    @Test
+    public void testValidation() throws IOException {
+        String outOfBounds = write("bounds.txt", "2\n0 5 1\n");
+        String lateHeader = write("late.txt", "0 1 1\n3\n");
+        String badWeight = write("weight.txt", "0 1 abc\n");
+        String badVertex = write("vertex.txt", "0 1.5 2\n");
+        String empty = write("empty.txt", "# nothing\n");
+
+        assertThrows(IllegalArgumentException.class, () -> EdgeListLoader.load(outOfBounds, true));
+        assertThrows(IllegalArgumentException.class, () -> EdgeListLoader.load(lateHeader, true));
+        assertThrows(IllegalArgumentException.class, () -> EdgeListLoader.load(badWeight, true));
+        assertThrows(IllegalArgumentException.class, () -> EdgeListLoader.load(badVertex, true));
+        assertThrows(IllegalArgumentException.class, () -> EdgeListLoader.load(empty, true));
+    }
+}
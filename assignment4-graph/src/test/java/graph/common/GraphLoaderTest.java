@@ -0,0 +1,107 @@
+package graph.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String write(String name, String json) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, json);
+        return file.toString();
+    }
+
+    private static List<GraphLoader.GraphData> readAll(String file) throws IOException {
+        List<GraphLoader.GraphData> graphs = new ArrayList<>();
+        try (GraphLoader.GraphIterator iterator = GraphLoader.iterateGraphs(file)) {
+            iterator.forEachRemaining(graphs::add);
+        }
+        return graphs;
+    }
+
+    @Test
+    public void testStreamsMultipleGraphsInAnyFieldOrder() throws IOException {
+        String file = write("multi.json", "{\"graphs\": ["
+                + "{\"id\": 1, \"n\": 3, \"directed\": true, \"edges\": [{\"u\": 0, \"v\": 1, \"w\": 2},"
+                + " {\"w\": 1.5, \"v\": 2, \"u\": 1}], \"source\": 1, \"density\": \"sparse\", \"extra\": [1, 2]},"
+                + "{\"edges\": [{\"u\": 0, \"v\": 1, \"w\": 4}], \"directed\": false, \"n\": 2, \"id\": 2,"
+                + " \"weight_model\": \"node\", \"durations\": [1, 2]}"
+                + "]}");
+
+        List<GraphLoader.GraphData> graphs = readAll(file);
+        assertEquals(2, graphs.size());
+
+        GraphLoader.GraphData first = graphs.get(0);
+        assertEquals(1, first.getId());
+        assertEquals(1, first.source);
+        assertEquals("sparse", first.getDensity());
+        CsrGraph csr = first.getCsr();
+        assertEquals(2, csr.getEdgeCount());
+        assertEquals(2, csr.target(csr.edgeStart(1)));
+        assertEquals(1.5, csr.weight(csr.edgeStart(1)));
+        assertEquals(1, first.getGraph().getNeighbors(0).size());
+
+        // "directed": false arrives after the edges, which must still be mirrored
+        GraphLoader.GraphData second = graphs.get(1);
+        assertFalse(second.getCsr().isDirected());
+        assertEquals(2, second.getCsr().getEdgeCount());
+        assertFalse(second.getGraph().isDirected());
+        assertEquals(1, second.getGraph().getNeighbors(0).size());
+        assertEquals(1, second.getGraph().getNeighbors(1).size());
+        assertTrue(second.isNodeWeighted());
+        assertArrayEquals(new double[]{1, 2}, second.durations);
+    }
+
+    @Test
+    public void testSingleGraphFormat() throws IOException {
+        String file = write("single.json",
+                "{\"directed\": true, \"n\": 2, \"edges\": [{\"u\": 0, \"v\": 1, \"w\": 3}], \"source\": 0}");
+        List<GraphLoader.GraphData> graphs = readAll(file);
+        assertEquals(1, graphs.size());
+        assertEquals(1, graphs.get(0).getCsr().getEdgeCount());
+        assertEquals(1, GraphLoader.loadFromJson(file).getGraph().getNeighbors(0).size());
+    }
+
+    @Test
+    public void testValidation() throws IOException {
+        String badEdge = write("bad_edge.json", "{\"n\": 2, \"edges\": [{\"u\": 0, \"v\": 5, \"w\": 1}]}");
+        String badSource = write("bad_source.json", "{\"n\": 2, \"source\": 2, \"edges\": []}");
+        String noVertices = write("empty.json", "{\"n\": 0, \"edges\": []}");
+        String badDurations = write("durations.json", "{\"n\": 2, \"durations\": [1], \"edges\": []}");
+
+        assertThrows(IllegalArgumentException.class, () -> readAll(badEdge));
+        assertThrows(IllegalArgumentException.class, () -> readAll(badSource));
+        assertThrows(IllegalArgumentException.class, () -> readAll(noVertices));
+        assertThrows(IllegalArgumentException.class, () -> GraphLoader.loadFromJson(badDurations));
+    }
+
+    @Test
+    public void testIteratorReadsGraphsOnDemand() throws IOException {
+        String file = write("lazy.json", "{\"note\": \"x\", \"graphs\": ["
+                + "{\"id\": 1, \"n\": 2, \"edges\": []},"
+                + "{\"id\": 2, \"n\": 2, \"source\": 9, \"edges\": []}"
+                + "]}");
+
+        try (GraphLoader.GraphIterator graphs = GraphLoader.iterateGraphs(file)) {
+            assertTrue(graphs.hasNext());
+            assertEquals(1, graphs.next().getId());
+            // The second graph is only parsed, and rejected, when requested
+            assertTrue(graphs.hasNext());
+            assertThrows(IllegalArgumentException.class, graphs::next);
+        }
+
+        String single = write("single_stream.json", "{\"n\": 3, \"edges\": [{\"u\": 0, \"v\": 2, \"w\": 1}]}");
+        try (java.util.stream.Stream<GraphLoader.GraphData> stream = GraphLoader.streamGraphs(single)) {
+            assertEquals(1, stream.mapToInt(g -> g.getCsr().getEdgeCount()).sum());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package graph.common;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultWritersTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testPrettyJsonMatchesGsonTree() throws IOException {
+        Path file = tempDir.resolve("results.json");
+        int[] members = {4, 2, 9, 3};
+        try (ResultWriters.JsonResults results = new ResultWriters.JsonResults(file.toString(), true, false)) {
+            JsonWriter out = results.result();
+            out.beginObject();
+            out.name("graph_id").value(1);
+            out.name("sccs").beginArray();
+            ResultWriters.writeInts(out, members, 0, 1);
+            ResultWriters.writeInts(out, members, 1, 4);
+            out.endArray();
+            out.name("length").value(2.5);
+            out.name("variant").value("a<b");
+            out.endObject();
+            results.endResult();
+            assertEquals(1, results.getCount());
+            // Flushed per result: the first graph is already on disk
+            assertTrue(Files.size(file) > 0);
+        }
+
+        JsonObject graph = new JsonObject();
+        graph.addProperty("graph_id", 1);
+        JsonArray sccs = new JsonArray();
+        JsonArray first = new JsonArray();
+        first.add(4);
+        JsonArray second = new JsonArray();
+        second.add(2);
+        second.add(9);
+        second.add(3);
+        sccs.add(first);
+        sccs.add(second);
+        graph.add("sccs", sccs);
+        graph.addProperty("length", 2.5);
+        graph.addProperty("variant", "a<b");
+        JsonArray array = new JsonArray();
+        array.add(graph);
+        JsonObject root = new JsonObject();
+        root.add("results", array);
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+        assertEquals(gson.toJson(root), Files.readString(file));
+    }
+
+    @Test
+    public void testCompactGzipAndCsv() throws IOException {
+        Path json = tempDir.resolve("results.json.gz");
+        try (ResultWriters.JsonResults results = new ResultWriters.JsonResults(json.toString(), false, true)) {
+            results.result().beginObject().name("graph_id").value(3).endObject();
+            results.endResult();
+        }
+        assertEquals("{\"results\":[{\"graph_id\":3}]}", gunzip(json));
+
+        Path csv = tempDir.resolve("output.csv.gz");
+        try (ResultWriters.CsvResults rows = new ResultWriters.CsvResults(csv.toString(), true)) {
+            rows.writeRow("3", "8", "10");
+            rows.flush();
+        }
+        assertEquals(Metrics.CSV_HEADER + "3;8;10\n", gunzip(csv));
+    }
+
+    @Test
+    public void testCloseAfterPartialResultStillClosesFile() throws IOException {
+        Path file = tempDir.resolve("partial.json");
+        ResultWriters.JsonResults results = new ResultWriters.JsonResults(file.toString(), false, false);
+        results.result().beginObject().name("graph_id").value(1).endObject();
+        results.endResult();
+        // A writer failing mid-result leaves the object open
+        results.result().beginObject().name("graph_id").value(2);
+
+        IOException error = assertThrows(IOException.class, results::close);
+        assertTrue(error.getMessage().contains("Incomplete document"));
+        // The stream was flushed and closed anyway
+        assertEquals("{\"results\":[{\"graph_id\":1},{\"graph_id\":2", Files.readString(file));
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package graph.dagsp;
 
+import graph.common.CsrGraph;
 import graph.common.Graph;
 import org.junit.jupiter.api.Test;
 import java.util.List;
@@ -126,6 +127,25 @@ public class DAGShortestPathTest {
         assertEquals(0, result.distances[0], 0.001);
     }
     
+    @Test
+    public void testNodeWeightedSingleVertexPaths() {
+        // 0 -> 1 weighs 2 + 1 + 3; isolated vertex 2 alone weighs 10
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1, 1);
+        DAGShortestPath dagsp = new DAGShortestPath(graph, new double[]{2, 3, 10});
+        
+        DAGShortestPath.PathResult result = dagsp.shortestPaths(0);
+        assertEquals(2, result.distances[0]);
+        assertEquals(List.of(0), result.pathTo(0));
+        assertEquals(List.of(0, 1), result.pathTo(1));
+        assertTrue(result.pathTo(2).isEmpty());
+        
+        DAGShortestPath.CriticalPathResult critical = dagsp.findCriticalPath();
+        assertEquals(10, critical.length);
+        assertEquals(List.of(2), critical.path);
+        assertEquals(0, critical.edges.length);
+    }
+    
     @Test
     public void testMetrics() {
         Graph graph = new Graph(3, true);
@@ -140,5 +160,344 @@ public class DAGShortestPathTest {
         assertTrue(metrics.relaxations > 0);
         assertTrue(metrics.getElapsedTime() > 0);
     }
+    
+    @Test
+    public void testCriticalPathMatchesAllSources() {
+        java.util.Random random = new java.util.Random(21);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 30;
+            Graph graph = new Graph(n, true);
+            for (int i = 0; i < 60; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                // Small integer weights produce plenty of ties
+                if (a < b) graph.addEdge(a, b, random.nextInt(4) - 1);
+            }
+            
+            DAGShortestPath dagsp = new DAGShortestPath(graph);
+            double expectedLength = Double.NEGATIVE_INFINITY;
+            int expectedSource = -1;
+            int expectedTarget = -1;
+            DAGShortestPath.PathResult expectedResult = null;
+            for (int s = 0; s < n; s++) {
+                DAGShortestPath.PathResult result = dagsp.longestPaths(s);
+                for (int t = 0; t < n; t++) {
+                    if (result.distances[t] != Double.NEGATIVE_INFINITY && result.distances[t] > expectedLength) {
+                        expectedLength = result.distances[t];
+                        expectedSource = s;
+                        expectedTarget = t;
+                        expectedResult = result;
+                    }
+                }
+            }
+            
+            DAGShortestPath.CriticalPathResult critical = dagsp.findCriticalPath();
+            assertEquals(expectedLength, critical.length, 0.0);
+            assertEquals(expectedSource, critical.source);
+            assertEquals(expectedTarget, critical.target);
+            assertEquals(dagsp.reconstructPath(expectedResult, expectedTarget), critical.path);
+        }
+    }
+    
+    @Test
+    public void testPreparedDAGAnswersRepeatedQueries() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1, 5);
+        graph.addEdge(0, 2, 1);
+        graph.addEdge(1, 3, 1);
+        graph.addEdge(2, 3, 10);
+        
+        PreparedDAG prepared = new PreparedDAG(graph);
+        DAGShortestPath dagsp = new DAGShortestPath(graph);
+        int[] order = prepared.getOrder();
+        
+        for (int source = 0; source < 4; source++) {
+            assertArrayEquals(dagsp.shortestPaths(source).distances, prepared.shortestPaths(source).distances);
+            assertArrayEquals(dagsp.longestPaths(source).distances, prepared.longestPaths(source).distances);
+        }
+        assertSame(order, prepared.getOrder());
+        assertEquals(4, prepared.getTopoMetrics().pops);
+        assertEquals(11, prepared.findCriticalPath().length, 0.001);
+    }
+    
+    @Test
+    public void testPreparedDAGRejectsCycle() {
+        Graph graph = new Graph(2, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 0, 1);
+        assertThrows(IllegalArgumentException.class, () -> new PreparedDAG(graph));
+    }
+    
+    @Test
+    public void testMultiSourceMatchesSingleSource() {
+        java.util.Random random = new java.util.Random(8);
+        int n = 200;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 800; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) graph.addEdge(a, b, random.nextInt(20));
+        }
+        PreparedDAG prepared = new PreparedDAG(graph);
+        int[] sources = new int[70];
+        for (int j = 0; j < sources.length; j++) sources[j] = random.nextInt(n);
+        
+        MultiSourceShortestPaths batch = new MultiSourceShortestPaths(prepared, 16);
+        MultiSourceShortestPaths.BatchPathResult result = batch.shortestPaths(sources, true);
+        for (int j = 0; j < sources.length; j++) {
+            DAGShortestPath.PathResult single = prepared.shortestPaths(sources[j]);
+            DAGShortestPath.PathResult column = result.toPathResult(j);
+            assertArrayEquals(single.distances, column.distances);
+            assertArrayEquals(single.predecessors, column.predecessors);
+        }
+        
+        MultiSourceShortestPaths.BatchPathResult compact = batch.shortestPaths(sources, false);
+        assertNull(compact.predecessors);
+        assertEquals(result.distance(3, n - 1), compact.distance(3, n - 1));
+    }
+    
+    @Test
+    public void testMultiSourceRejectsOversizedMatrix() {
+        // 100000 x 30000 cells overflow an int index; rejected before anything is allocated
+        PreparedDAG prepared = new PreparedDAG(new Graph(100_000, true));
+        int[] sources = new int[30_000];
+        MultiSourceShortestPaths batch = new MultiSourceShortestPaths(prepared);
+        assertThrows(IllegalArgumentException.class, () -> batch.shortestPaths(sources, false));
+    }
+    
+    @Test
+    public void testParallelRelaxationMatchesSequential() {
+        java.util.Random random = new java.util.Random(21);
+        int n = 5000;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 30000; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            // Small integer weights produce many ties between predecessors
+            if (a < b) graph.addEdge(a, b, random.nextInt(4));
+        }
+        DAGShortestPath sequential = new DAGShortestPath(graph);
+        DAGShortestPath parallel = new DAGShortestPath(sequential.prepare());
+        parallel.setParallel(true);
+        
+        for (int source : new int[]{0, 17, 2500}) {
+            DAGShortestPath.PathResult expected = sequential.shortestPaths(source);
+            DAGShortestPath.PathResult actual = parallel.shortestPaths(source);
+            assertArrayEquals(expected.distances, actual.distances);
+            assertArrayEquals(expected.predecessors, actual.predecessors);
+            assertArrayEquals(expected.predecessorEdges, actual.predecessorEdges);
+            assertArrayEquals(expected.hops, actual.hops);
+            assertEquals(expected.farthestTarget, actual.farthestTarget);
+            assertEquals(sequential.getMetrics().relaxations, parallel.getMetrics().relaxations);
+            
+            expected = sequential.longestPaths(source);
+            actual = parallel.longestPaths(source);
+            assertArrayEquals(expected.distances, actual.distances);
+            assertArrayEquals(expected.predecessors, actual.predecessors);
+        }
+    }
+    
+    @Test
+    public void testPointToPointMatchesSingleSource() {
+        java.util.Random random = new java.util.Random(33);
+        int n = 300;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 1200; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) graph.addEdge(a, b, random.nextInt(5));
+        }
+        DAGShortestPath dagSP = new DAGShortestPath(graph);
+        for (int q = 0; q < 200; q++) {
+            int s = random.nextInt(n);
+            int t = random.nextInt(n);
+            DAGShortestPath.PathResult full = dagSP.shortestPaths(s);
+            DAGShortestPath.PairPathResult pair = dagSP.shortestPath(s, t);
+            assertEquals(full.pathTo(t), pair.path);
+            assertEquals(full.distances[t], pair.length);
+            
+            full = dagSP.longestPaths(s);
+            pair = dagSP.longestPath(s, t);
+            assertEquals(full.pathTo(t), pair.path);
+            assertEquals(full.distances[t], pair.length);
+        }
+        
+        DAGShortestPath.PairPathResult self = dagSP.shortestPath(7, 7);
+        assertEquals(java.util.List.of(7), self.path);
+        assertEquals(0.0, self.length);
+    }
+    
+    @Test
+    public void testCPMSchedule() {
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1, 3);
+        graph.addEdge(0, 2, 2);
+        graph.addEdge(1, 3, 4);
+        graph.addEdge(2, 3, 1);
+        graph.addEdge(2, 4, 1);
+        graph.addEdge(4, 3, 1);
+        
+        CPMScheduler.Schedule schedule = new CPMScheduler(new PreparedDAG(graph)).schedule();
+        assertEquals(7.0, schedule.projectLength);
+        assertArrayEquals(new double[]{0, 3, 2, 7, 3}, schedule.earliestStart);
+        assertArrayEquals(new double[]{0, 3, 5, 7, 6}, schedule.latestStart);
+        assertArrayEquals(new double[]{0, 0, 3, 0, 3}, schedule.totalFloat);
+        assertArrayEquals(new double[]{0, 0, 0, 0, 3}, schedule.freeFloat);
+        assertEquals(2, schedule.criticalEdges.length);
+        assertEquals(0, schedule.edgeSource(0));
+        assertEquals(1, schedule.edgeTarget(0));
+        assertEquals(1, schedule.edgeSource(1));
+        assertEquals(3, schedule.edgeTarget(1));
+        assertTrue(schedule.isCritical(1));
+        assertFalse(schedule.isCritical(4));
+    }
+    
+    @Test
+    public void testCPMMatchesLongestPaths() {
+        java.util.Random random = new java.util.Random(4);
+        int n = 150;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 500; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) graph.addEdge(a, b, 1 + random.nextInt(9));
+        }
+        PreparedDAG prepared = new PreparedDAG(graph);
+        CPMScheduler.Schedule schedule = new CPMScheduler(prepared).schedule();
+        assertEquals(prepared.findCriticalPath().length, schedule.projectLength);
+        
+        double[] earliest = new double[n];
+        for (int s = 0; s < n; s++) {
+            DAGShortestPath.PathResult result = prepared.longestPaths(s);
+            for (int v = 0; v < n; v++) {
+                earliest[v] = Math.max(earliest[v], result.distances[v]);
+            }
+        }
+        assertArrayEquals(earliest, schedule.earliestStart);
+        for (int v = 0; v < n; v++) {
+            assertTrue(schedule.totalFloat[v] >= schedule.freeFloat[v]);
+            assertTrue(schedule.freeFloat[v] >= 0);
+        }
+    }
+    
+    @Test
+    public void testNodeWeightsMatchSplitVertices() {
+        java.util.Random random = new java.util.Random(6);
+        int n = 120;
+        double[] durations = new double[n];
+        for (int v = 0; v < n; v++) durations[v] = random.nextInt(7);
+        
+        // Same DAG with every vertex v split into v -> v + n carrying its duration
+        Graph graph = new Graph(n, true);
+        Graph split = new Graph(2 * n, true);
+        for (int v = 0; v < n; v++) split.addEdge(v, v + n, durations[v]);
+        for (int i = 0; i < 400; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) {
+                double w = random.nextInt(5);
+                graph.addEdge(a, b, w);
+                split.addEdge(a + n, b, w);
+            }
+        }
+        
+        DAGShortestPath nodeWeighted = new DAGShortestPath(graph, durations);
+        DAGShortestPath expanded = new DAGShortestPath(split);
+        for (int s = 0; s < n; s += 10) {
+            double[] shortest = nodeWeighted.shortestPaths(s).distances;
+            double[] longest = nodeWeighted.longestPaths(s).distances;
+            double[] expectedShortest = expanded.shortestPaths(s).distances;
+            double[] expectedLongest = expanded.longestPaths(s).distances;
+            for (int v = 0; v < n; v++) {
+                assertEquals(expectedShortest[v + n], shortest[v]);
+                assertEquals(expectedLongest[v + n], longest[v]);
+            }
+        }
+        assertEquals(expanded.findCriticalPath().length, nodeWeighted.findCriticalPath().length);
+        
+        DAGShortestPath parallel = new DAGShortestPath(nodeWeighted.prepare());
+        parallel.setParallel(true);
+        assertArrayEquals(nodeWeighted.shortestPaths(0).distances, parallel.shortestPaths(0).distances);
+        assertEquals(nodeWeighted.shortestPaths(0).distances[n - 1], nodeWeighted.shortestPath(0, n - 1).length);
+    }
+    
+    @Test
+    public void testFusedSemiringsMatchSeparateRuns() {
+        java.util.Random random = new java.util.Random(19);
+        int n = 60;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 150; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) graph.addEdge(a, b, 1 + random.nextInt(9));
+        }
+        PreparedDAG prepared = new PreparedDAG(graph);
+        SemiringPaths engine = new SemiringPaths(prepared);
+        SemiringPaths.Semiring[] all = SemiringPaths.Semiring.values();
+        
+        for (int s = 0; s < n; s += 7) {
+            SemiringPaths.Result fused = engine.evaluate(s, all);
+            DAGShortestPath.PathResult shortest = prepared.shortestPaths(s);
+            assertEquals(prepared.getMetrics().relaxations, engine.getMetrics().relaxations);
+            DAGShortestPath.PathResult longest = prepared.longestPaths(s);
+            assertArrayEquals(shortest.distances, fused.values(SemiringPaths.Semiring.MIN_PLUS));
+            assertArrayEquals(shortest.predecessors, fused.predecessors(SemiringPaths.Semiring.MIN_PLUS));
+            assertArrayEquals(longest.distances, fused.values(SemiringPaths.Semiring.MAX_PLUS));
+            assertArrayEquals(longest.predecessors, fused.predecessors(SemiringPaths.Semiring.MAX_PLUS));
+            
+            double[] counts = fused.values(SemiringPaths.Semiring.COUNTING);
+            double[] bottleneck = fused.values(SemiringPaths.Semiring.MAX_MIN);
+            for (int t = 0; t < n; t++) {
+                double[] brute = enumeratePaths(graph, s, t, Double.POSITIVE_INFINITY);
+                assertEquals(brute[0], counts[t]);
+                assertEquals(t == s ? Double.POSITIVE_INFINITY : brute[1], bottleneck[t]);
+            }
+        }
+    }
+    
+    /** {number of s-t paths, best bottleneck} by plain recursion. */
+    private static double[] enumeratePaths(Graph graph, int u, int t, double capacity) {
+        if (u == t) return new double[]{1, capacity};
+        double count = 0;
+        double best = Double.NEGATIVE_INFINITY;
+        for (Graph.Edge edge : graph.getNeighbors(u)) {
+            double[] sub = enumeratePaths(graph, edge.to, t, Math.min(capacity, edge.weight));
+            count += sub[0];
+            best = Math.max(best, sub[1]);
+        }
+        return new double[]{count, best};
+    }
+    
+    @Test
+    public void testEdgeIndexedPredecessorsAndHops() {
+        // 0 -> 1 -> 2 -> 3 is the longest chain, 0 -> 3 the shortest route
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(0, 3, 1);
+        graph.addEdge(1, 2, 1);
+        graph.addEdge(2, 3, 1);
+        
+        DAGShortestPath dagSP = new DAGShortestPath(graph);
+        CsrGraph csr = dagSP.prepare().getGraph();
+        DAGShortestPath.PathResult shortest = dagSP.shortestPaths(0);
+        assertArrayEquals(new int[]{0, 1, 2, 1, 0}, shortest.hops);
+        assertEquals(2, shortest.farthestTarget);
+        for (int v = 1; v <= 3; v++) {
+            int e = shortest.predecessorEdges[v];
+            assertEquals(shortest.predecessors[v], csr.source(e));
+            assertEquals(v, csr.target(e));
+        }
+        assertEquals(-1, shortest.predecessorEdges[4]);
+        
+        DAGShortestPath.PathResult longest = dagSP.longestPaths(0);
+        assertEquals(3, longest.hops[3]);
+        assertEquals(3, longest.farthestTarget);
+        
+        DAGShortestPath.CriticalPathResult critical = dagSP.findCriticalPath();
+        assertEquals(critical.path.size() - 1, critical.edges.length);
+        for (int i = 0; i < critical.edges.length; i++) {
+            assertEquals(critical.path.get(i + 1).intValue(), csr.target(critical.edges[i]));
+        }
+    }
 }
 
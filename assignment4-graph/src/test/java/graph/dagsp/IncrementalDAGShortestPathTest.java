@@ -0,0 +1,174 @@
+package graph.dagsp;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalDAGShortestPathTest {
+
+    @Test
+    public void testWeightChangeTouchesOnlyDownstream() {
+        // 0 -> 1 -> 2 -> 3 and an independent branch 0 -> 4
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(0, 4, 1);
+        graph.addEdge(1, 2, 1);
+        graph.addEdge(2, 3, 1);
+
+        IncrementalDAGShortestPath engine = new IncrementalDAGShortestPath(graph, 0, false);
+        assertEquals(3.0, engine.getResult().distances[3]);
+
+        engine.setWeight(2, 5); // edge 1 -> 2
+        assertEquals(2, engine.repair());
+        assertEquals(7.0, engine.getResult().distances[3]);
+        assertEquals(1.0, engine.getResult().distances[4]);
+    }
+
+    @Test
+    public void testInsertAndRemoveEdges() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1, 5);
+        graph.addEdge(1, 2, 5);
+
+        IncrementalDAGShortestPath engine = new IncrementalDAGShortestPath(graph, 0, false);
+        assertEquals(Double.POSITIVE_INFINITY, engine.getResult().distances[3]);
+
+        int shortcut = engine.addEdge(0, 2, 3);
+        assertTrue(shortcut >= 0);
+        assertEquals(3.0, engine.getResult().distances[2]);
+        assertEquals(0, engine.getResult().predecessors[2]);
+        assertEquals(-1, engine.addEdge(2, 0, 1));
+
+        engine.removeEdge(shortcut);
+        assertEquals(10.0, engine.getResult().distances[2]);
+        assertEquals(1, engine.getResult().predecessors[2]);
+        assertThrows(IllegalArgumentException.class, () -> engine.removeEdge(shortcut));
+    }
+
+    @Test
+    public void testRandomChangesMatchRecomputation() {
+        Random random = new Random(5);
+        int n = 120;
+        List<double[]> edges = new ArrayList<>(); // {u, v, weight, id}
+        // Weights 0..2 make equal-length paths common, so predecessor ties are exercised
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 400; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) graph.addEdge(a, b, random.nextInt(3));
+        }
+        int id = 0;
+        for (int u = 0; u < n; u++) {
+            for (Graph.Edge edge : graph.getNeighbors(u)) {
+                edges.add(new double[]{u, edge.to, edge.weight, id++});
+            }
+        }
+
+        for (boolean longest : new boolean[]{false, true}) {
+            List<double[]> current = new ArrayList<>();
+            for (double[] edge : edges) current.add(edge.clone());
+            IncrementalDAGShortestPath engine = new IncrementalDAGShortestPath(graph, 0, longest);
+
+            for (int round = 0; round < 60; round++) {
+                for (int change = 0; change < 3; change++) {
+                    int kind = random.nextInt(3);
+                    if (kind == 0 && !current.isEmpty()) {
+                        double[] edge = current.get(random.nextInt(current.size()));
+                        edge[2] = random.nextInt(3);
+                        engine.setWeight((int) edge[3], edge[2]);
+                    } else if (kind == 1 && !current.isEmpty()) {
+                        double[] edge = current.remove(random.nextInt(current.size()));
+                        engine.removeEdge((int) edge[3]);
+                    } else {
+                        int u = random.nextInt(n);
+                        int v = random.nextInt(n);
+                        double w = random.nextInt(3);
+                        int edge = engine.addEdge(u, v, w);
+                        if (edge >= 0) current.add(new double[]{u, v, w, edge});
+                    }
+                }
+                engine.repair();
+
+                Graph rebuilt = new Graph(n, true);
+                for (double[] edge : current) rebuilt.addEdge((int) edge[0], (int) edge[1], edge[2]);
+                DAGShortestPath fresh = new DAGShortestPath(rebuilt);
+                DAGShortestPath.PathResult expected = longest ? fresh.longestPaths(0) : fresh.shortestPaths(0);
+                DAGShortestPath.PathResult actual = engine.getResult();
+                assertArrayEquals(expected.distances, actual.distances);
+
+                // current is in edge id order, so the rebuilt CSR keeps each tail's edges in id order;
+                // over the engine's own order the sequential sweep must pick the same predecessors
+                PreparedDAG sameOrder = new PreparedDAG(CsrGraph.fromGraph(rebuilt), engine.getOrder().clone());
+                DAGShortestPath.PathResult sequential = longest ? sameOrder.longestPaths(0) : sameOrder.shortestPaths(0);
+                assertArrayEquals(sequential.predecessors, actual.predecessors);
+            }
+        }
+    }
+
+    @Test
+    public void testNodeWeightsMatchPreparedDAG() {
+        Random random = new Random(9);
+        int n = 80;
+        double[] nodeWeights = new double[n];
+        for (int v = 0; v < n; v++) nodeWeights[v] = random.nextInt(5);
+        List<double[]> current = new ArrayList<>(); // {u, v, weight, id}
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 250; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a < b) graph.addEdge(a, b, random.nextInt(10));
+        }
+        int id = 0;
+        for (int u = 0; u < n; u++) {
+            for (Graph.Edge edge : graph.getNeighbors(u)) {
+                current.add(new double[]{u, edge.to, edge.weight, id++});
+            }
+        }
+
+        IncrementalDAGShortestPath engine = new IncrementalDAGShortestPath(graph, 0, true, nodeWeights);
+        for (int round = 0; round < 20; round++) {
+            double[] edge = current.get(random.nextInt(current.size()));
+            edge[2] = random.nextInt(10);
+            engine.setWeight((int) edge[3], edge[2]);
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            double w = random.nextInt(10);
+            int added = engine.addEdge(u, v, w);
+            if (added >= 0) current.add(new double[]{u, v, w, added});
+
+            Graph rebuilt = new Graph(n, true);
+            for (double[] e : current) rebuilt.addEdge((int) e[0], (int) e[1], e[2]);
+            PreparedDAG prepared = new PreparedDAG(rebuilt, nodeWeights);
+            assertArrayEquals(prepared.longestPaths(0).distances, engine.getResult().distances);
+        }
+        assertEquals(nodeWeights[0], engine.getResult().distances[0]);
+        assertThrows(IllegalArgumentException.class,
+                () -> new IncrementalDAGShortestPath(graph, 0, false, new double[n - 1]));
+    }
+
+    @Test
+    public void testReorderingInsertionMovesTieToNewFirstTail() {
+        // 1 and 2 both give 3 distance 2; the predecessor is whichever comes first in the order
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(0, 2, 1);
+        graph.addEdge(1, 3, 1);
+        graph.addEdge(2, 3, 1);
+        IncrementalDAGShortestPath engine = new IncrementalDAGShortestPath(graph, 0, false);
+        int[] position = new int[4];
+        for (int i = 0; i < 4; i++) position[engine.getOrder()[i]] = i;
+        int first = position[1] < position[2] ? 1 : 2;
+        int second = 3 - first;
+        assertEquals(first, engine.getResult().predecessors[3]);
+
+        // A heavy second -> first edge changes no distance but moves second ahead of first
+        assertTrue(engine.addEdge(second, first, 100) >= 0);
+        engine.repair();
+        assertEquals(2, engine.getResult().distances[3]);
+        assertEquals(second, engine.getResult().predecessors[3]);
+    }
+}
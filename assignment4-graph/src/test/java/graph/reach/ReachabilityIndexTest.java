@@ -0,0 +1,127 @@
+package graph.reach;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReachabilityIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testClosureIntervalsAndLabelsMatchBFS() throws Exception {
+        Random random = new Random(12);
+        int n = 400;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 700; i++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n), 1);
+        }
+        TarjanSCC tarjan = new TarjanSCC(graph);
+        TarjanSCC.CondensationGraph condensation = tarjan.buildCondensation(tarjan.findSCCs());
+        CsrGraph dag = CsrGraph.fromGraph(condensation.graph);
+
+        ReachabilityIndex closure = ReachabilityIndex.build(condensation);
+        ReachabilityIndex intervals = ReachabilityIndex.build(dag, condensation.vertexToSCC, 0);
+        ReachabilityIndex labels = ReachabilityIndex.build(dag, condensation.vertexToSCC, 0, 0);
+        assertTrue(closure.isClosure());
+        assertTrue(intervals.hasIntervals());
+        assertFalse(labels.isClosure());
+        assertFalse(labels.hasIntervals());
+        assertTrue(labels.memoryBytes() > 0);
+
+        String file = tempDir.resolve("labels.idx").toString();
+        labels.save(file);
+        ReachabilityIndex loaded = ReachabilityIndex.load(file);
+        String intervalFile = tempDir.resolve("intervals.idx").toString();
+        intervals.save(intervalFile);
+        ReachabilityIndex loadedIntervals = ReachabilityIndex.load(intervalFile);
+        assertTrue(loadedIntervals.hasIntervals());
+
+        for (int a = 0; a < n; a += 3) {
+            boolean[] expected = bfs(graph, a);
+            for (int b = 0; b < n; b++) {
+                assertEquals(expected[b], closure.reachable(a, b));
+                assertEquals(expected[b], intervals.reachable(a, b));
+                assertEquals(expected[b], labels.reachable(a, b));
+                assertEquals(expected[b], loaded.reachable(a, b));
+                assertEquals(expected[b], loadedIntervals.reachable(a, b));
+            }
+        }
+        assertEquals(0, intervals.getFallbackSearches());
+    }
+
+    @Test
+    public void testAboveClosureLimitCountsFallbacks() {
+        // Random DAG with more components than the closure limit: edges only go to higher ids
+        Random random = new Random(5);
+        int n = ReachabilityIndex.DEFAULT_CLOSURE_LIMIT + 2000;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 2 * n; i++) {
+            int u = random.nextInt(n - 1);
+            graph.addEdge(u, u + 1 + random.nextInt(Math.min(50, n - 1 - u)), 1);
+        }
+        CsrGraph dag = CsrGraph.fromGraph(graph);
+
+        ReachabilityIndex intervals = ReachabilityIndex.build(dag, null);
+        ReachabilityIndex labels = ReachabilityIndex.build(dag, null, ReachabilityIndex.DEFAULT_CLOSURE_LIMIT, 0);
+        assertTrue(intervals.hasIntervals());
+        assertFalse(labels.hasIntervals());
+
+        int queries = 0;
+        for (int a = 0; a < n; a += 97) {
+            boolean[] expected = bfs(graph, a);
+            for (int b = 0; b < n; b += 7) {
+                assertEquals(expected[b], intervals.reachableSCC(a, b));
+                assertEquals(expected[b], labels.reachableSCC(a, b));
+                queries++;
+            }
+        }
+        assertEquals(0, intervals.getFallbackSearches());
+        // The labels settle most queries; the rest pay for a pruned DFS
+        long fallbacks = labels.getFallbackSearches();
+        assertTrue(fallbacks > 0 && fallbacks < queries, fallbacks + " of " + queries);
+        assertTrue(labels.getSummary().contains("Fallback searches: " + fallbacks));
+        assertTrue(intervals.getSummary().startsWith("Mode: intervals"));
+    }
+
+    @Test
+    public void testClosureRoundTrip() throws Exception {
+        Graph dag = new Graph(4, true);
+        dag.addEdge(0, 1, 1);
+        dag.addEdge(1, 2, 1);
+        ReachabilityIndex index = ReachabilityIndex.build(CsrGraph.fromGraph(dag), null);
+
+        String file = tempDir.resolve("closure.idx").toString();
+        index.save(file);
+        ReachabilityIndex loaded = ReachabilityIndex.load(file);
+        assertTrue(loaded.isClosure());
+        assertTrue(loaded.reachableSCC(0, 2));
+        assertFalse(loaded.reachableSCC(2, 0));
+        assertFalse(loaded.reachableSCC(0, 3));
+        assertThrows(IllegalStateException.class, () -> loaded.reachable(0, 1));
+    }
+
+    private static boolean[] bfs(Graph graph, int start) {
+        boolean[] seen = new boolean[graph.getN()];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        seen[start] = true;
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (Graph.Edge edge : graph.getNeighbors(u)) {
+                if (!seen[edge.to]) {
+                    seen[edge.to] = true;
+                    queue.add(edge.to);
+                }
+            }
+        }
+        return seen;
+    }
+}
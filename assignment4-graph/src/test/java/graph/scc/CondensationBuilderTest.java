@@ -0,0 +1,81 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CondensationBuilderTest {
+
+    private static int[] vertexToSCC(List<List<Integer>> sccs, int n) {
+        int[] map = new int[n];
+        for (int i = 0; i < sccs.size(); i++) {
+            for (int v : sccs.get(i)) map[v] = i;
+        }
+        return map;
+    }
+
+    @Test
+    public void testParallelEdgeAggregation() {
+        // {0,1} is one SCC with two edges into 2 of weight 5 and 2
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 0, 1);
+        graph.addEdge(0, 2, 5);
+        graph.addEdge(1, 2, 2);
+
+        CsrGraph csr = CsrGraph.fromGraph(graph);
+        List<List<Integer>> sccs = new TarjanSCC(csr).findSCCs();
+        int[] map = vertexToSCC(sccs, 3);
+        int from = map[0];
+
+        for (CondensationBuilder.WeightAggregation aggregation : CondensationBuilder.WeightAggregation.values()) {
+            CsrGraph dag = new CondensationBuilder(csr, map, sccs.size()).aggregation(aggregation).buildCsr();
+            assertEquals(1, dag.getEdgeCount());
+            double expected = aggregation == CondensationBuilder.WeightAggregation.MIN ? 2 : 5;
+            assertEquals(expected, dag.weight(dag.edgeStart(from)), 0.001);
+        }
+    }
+
+    @Test
+    public void testNodeWeightsSumPerComponent() {
+        Graph graph = new Graph(3, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 0, 1);
+        graph.addEdge(1, 2, 1);
+
+        CsrGraph csr = CsrGraph.fromGraph(graph);
+        TarjanSCC.Components components = new TarjanSCC(csr).findComponents();
+        double[] sums = new CondensationBuilder(csr, components).sumNodeWeights(new double[]{2, 3, 4});
+        assertEquals(5.0, sums[components.componentOf[0]]);
+        assertEquals(4.0, sums[components.componentOf[2]]);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        Random random = new Random(5);
+        int n = 20000;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 60000; i++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(10));
+        }
+        CsrGraph csr = CsrGraph.fromGraph(graph);
+        List<List<Integer>> sccs = new TarjanSCC(csr).findSCCsIterative();
+        int[] map = vertexToSCC(sccs, n);
+
+        TarjanSCC.CondensationGraph legacy = new TarjanSCC(csr).buildCondensation(sccs);
+        CsrGraph expected = CsrGraph.fromGraph(legacy.graph);
+        CsrGraph actual = new CondensationBuilder(csr, map, sccs.size()).parallel(true).buildCsr();
+
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int c = 0; c < sccs.size(); c++) {
+            assertEquals(expected.degree(c), actual.degree(c));
+            for (int e = expected.edgeStart(c); e < expected.edgeEnd(c); e++) {
+                assertEquals(expected.target(e), actual.target(e));
+                assertEquals(expected.weight(e), actual.weight(e));
+            }
+        }
+    }
+}
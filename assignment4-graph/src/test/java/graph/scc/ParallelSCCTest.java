@@ -0,0 +1,152 @@
+package graph.scc;
+
+import graph.common.CsrGraph;
+import graph.common.Graph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSCCTest {
+
+    private static Set<Set<Integer>> asPartition(List<List<Integer>> sccs) {
+        Set<Set<Integer>> partition = new HashSet<>();
+        for (List<Integer> scc : sccs) {
+            partition.add(new HashSet<>(scc));
+        }
+        return partition;
+    }
+
+    private static Graph randomGraph(int n, int m, long seed) {
+        Random random = new Random(seed);
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < m; i++) {
+            graph.addEdge(random.nextInt(n), random.nextInt(n), 1);
+        }
+        return graph;
+    }
+
+    private static void assertMatchesTarjan(Graph graph, ParallelSCC.Strategy strategy) {
+        List<List<Integer>> expected = new TarjanSCC(graph).findSCCsIterative();
+        ParallelSCC parallel = new ParallelSCC(CsrGraph.fromGraph(graph), strategy, ForkJoinPool.commonPool());
+        List<List<Integer>> actual = parallel.findSCCs();
+
+        assertEquals(asPartition(expected), asPartition(actual));
+        int[] vertexToSCC = parallel.getVertexToSCC();
+        for (int i = 0; i < actual.size(); i++) {
+            for (int v : actual.get(i)) {
+                assertEquals(i, vertexToSCC[v]);
+            }
+        }
+    }
+
+    @Test
+    public void testSmallCycles() {
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 0, 1);
+        graph.addEdge(1, 2, 1);
+        graph.addEdge(2, 3, 1);
+        graph.addEdge(3, 2, 1);
+
+        for (ParallelSCC.Strategy strategy : ParallelSCC.Strategy.values()) {
+            assertMatchesTarjan(graph, strategy);
+        }
+    }
+
+    @Test
+    public void testSparseRandomGraph() {
+        // Sparse enough for many small components, large enough to split in parallel
+        Graph graph = randomGraph(5000, 6000, 7);
+        for (ParallelSCC.Strategy strategy : ParallelSCC.Strategy.values()) {
+            assertMatchesTarjan(graph, strategy);
+        }
+    }
+
+    @Test
+    public void testGiantComponentWithTails() {
+        Graph graph = randomGraph(4000, 12000, 11);
+        // Hang acyclic tails off the giant component
+        Graph withTails = new Graph(6000, true);
+        for (int u = 0; u < 4000; u++) {
+            for (Graph.Edge edge : graph.getNeighbors(u)) {
+                withTails.addEdge(edge.from, edge.to, edge.weight);
+            }
+        }
+        for (int v = 4000; v < 6000; v++) {
+            withTails.addEdge(v - 1, v, 1);
+        }
+
+        for (ParallelSCC.Strategy strategy : ParallelSCC.Strategy.values()) {
+            assertMatchesTarjan(withTails, strategy);
+        }
+    }
+
+    @Test
+    public void testCondensationFromParallelResult() {
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 0, 1);
+        graph.addEdge(1, 2, 4);
+        graph.addEdge(2, 3, 2);
+
+        ParallelSCC parallel = new ParallelSCC(graph);
+        List<List<Integer>> sccs = parallel.findSCCs();
+        TarjanSCC.CondensationGraph condensation = parallel.buildCondensation(sccs);
+
+        assertEquals(3, condensation.graph.getN());
+        assertArrayEquals(parallel.getVertexToSCC(), condensation.vertexToSCC);
+    }
+
+    @Test
+    @Timeout(60)
+    public void testLargeRandomDag() {
+        // Every split of a DAG peels a single vertex; trim and the split depth guard keep this linear
+        Random random = new Random(5);
+        int n = 100_000;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 200_000; i++) {
+            int u = random.nextInt(n - 1);
+            graph.addEdge(u, u + 1 + random.nextInt(Math.min(50, n - 1 - u)), 1);
+        }
+        for (ParallelSCC.Strategy strategy : ParallelSCC.Strategy.values()) {
+            assertMatchesTarjan(graph, strategy);
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    public void testLongChains() {
+        int n = 100_000;
+        Graph ascending = new Graph(n, true);
+        Graph descending = new Graph(n, true);
+        for (int v = 1; v < n; v++) {
+            ascending.addEdge(v - 1, v, 1);
+            descending.addEdge(v, v - 1, 1);
+        }
+        for (ParallelSCC.Strategy strategy : ParallelSCC.Strategy.values()) {
+            assertMatchesTarjan(ascending, strategy);
+            assertMatchesTarjan(descending, strategy);
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    public void testDescendingChainOfCycles() {
+        // Two-vertex cycles linked against the id order: trim removes nothing, coloring labels
+        // advance one pair per pass and forward-backward peels one pair per split
+        int pairs = 20_000;
+        Graph graph = new Graph(2 * pairs, true);
+        for (int i = 0; i < pairs; i++) {
+            graph.addEdge(2 * i, 2 * i + 1, 1);
+            graph.addEdge(2 * i + 1, 2 * i, 1);
+            if (i > 0) {
+                graph.addEdge(2 * i, 2 * i - 2, 1);
+            }
+        }
+        for (ParallelSCC.Strategy strategy : ParallelSCC.Strategy.values()) {
+            assertMatchesTarjan(graph, strategy);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package graph.scc;
 
 import graph.common.Graph;
 import org.junit.jupiter.api.Test;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TarjanSCCTest {
@@ -124,5 +127,102 @@ public class TarjanSCCTest {
         assertTrue(metrics.getElapsedTime() > 0);
         assertTrue(metrics.edgesExplored > 0);
     }
+    
+    @Test
+    public void testIterativeMatchesRecursive() {
+        Random random = new Random(42);
+        Graph graph = new Graph(60, true);
+        for (int i = 0; i < 150; i++) {
+            graph.addEdge(random.nextInt(60), random.nextInt(60), 1);
+        }
+        
+        TarjanSCC tarjan = new TarjanSCC(graph);
+        List<List<Integer>> recursive = tarjan.findSCCs();
+        int recursiveVisits = tarjan.getMetrics().dfsVisits;
+        List<List<Integer>> iterative = tarjan.findSCCsIterative();
+        
+        assertEquals(recursive, iterative);
+        assertEquals(recursiveVisits, tarjan.getMetrics().dfsVisits);
+    }
+    
+    @Test
+    public void testIterativeLongChain() {
+        // Chain long enough to overflow the default thread stack when recursing
+        int n = 200_000;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i + 1 < n; i++) {
+            graph.addEdge(i, i + 1, 1);
+        }
+        graph.addEdge(n - 1, 0, 1);
+        
+        TarjanSCC tarjan = new TarjanSCC(graph);
+        List<List<Integer>> sccs = tarjan.findSCCsIterative();
+        
+        assertEquals(1, sccs.size());
+        assertEquals(n, sccs.get(0).size());
+    }
+    
+    @Test
+    public void testTrimmingKeepsComponents() {
+        Random random = new Random(3);
+        Graph graph = new Graph(3000, true);
+        for (int i = 0; i < 3500; i++) {
+            graph.addEdge(random.nextInt(3000), random.nextInt(3000), 1);
+        }
+        
+        TarjanSCC plain = new TarjanSCC(graph);
+        Set<Set<Integer>> expected = new HashSet<>();
+        for (List<Integer> scc : plain.findSCCs()) expected.add(new HashSet<>(scc));
+        
+        TarjanSCC trimmed = new TarjanSCC(graph);
+        trimmed.setTrimming(true);
+        for (List<List<Integer>> sccs : List.of(trimmed.findSCCs(), trimmed.findSCCsIterative())) {
+            Set<Set<Integer>> actual = new HashSet<>();
+            for (List<Integer> scc : sccs) actual.add(new HashSet<>(scc));
+            assertEquals(expected, actual);
+        }
+        assertTrue(trimmed.getMetrics().trimmedVertices > 0);
+        assertEquals(expected.size(), trimmed.getMetrics().sccCount);
+    }
+    
+    @Test
+    public void testTrimmingPeelsWholeDAG() {
+        // Every vertex of a DAG is peeled, so the DFS never runs
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 2, 1);
+        graph.addEdge(0, 3, 1);
+        
+        TarjanSCC tarjan = new TarjanSCC(graph);
+        tarjan.setTrimming(true);
+        List<List<Integer>> sccs = tarjan.findSCCs();
+        
+        assertEquals(4, sccs.size());
+        assertEquals(4, tarjan.getMetrics().trimmedVertices);
+        assertEquals(0, tarjan.getMetrics().dfsVisits);
+    }
+    
+    @Test
+    public void testComponentsMatchLists() {
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(1, 2, 1);
+        graph.addEdge(2, 0, 1);
+        graph.addEdge(2, 3, 1);
+        graph.addEdge(3, 4, 1);
+        
+        TarjanSCC tarjan = new TarjanSCC(graph);
+        List<List<Integer>> sccs = tarjan.findSCCs();
+        TarjanSCC.Components components = tarjan.findComponents();
+        
+        assertEquals(sccs.size(), components.count);
+        assertEquals(sccs, components.toLists());
+        for (int c = 0; c < components.count; c++) {
+            for (int v : sccs.get(c)) {
+                assertEquals(c, components.componentOf[v]);
+            }
+        }
+        assertEquals(3, tarjan.buildCondensation(components).getN());
+    }
 }
 
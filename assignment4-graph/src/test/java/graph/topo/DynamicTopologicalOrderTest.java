@@ -0,0 +1,70 @@
+package graph.topo;
+
+import graph.common.Graph;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicTopologicalOrderTest {
+
+    @Test
+    public void testInsertionReordersRegion() {
+        // 0 -> 1 and 2 -> 3, then chain them with 1 -> 2
+        Graph graph = new Graph(4, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(2, 3, 1);
+
+        DynamicTopologicalOrder dynamic = new DynamicTopologicalOrder(graph);
+        assertTrue(dynamic.addEdge(1, 2));
+        assertFalse(dynamic.addEdge(3, 0));
+
+        int[] pos = dynamic.positions();
+        assertTrue(pos[0] < pos[1]);
+        assertTrue(pos[1] < pos[2]);
+        assertTrue(pos[2] < pos[3]);
+        assertEquals(3, dynamic.getEdgeCount());
+    }
+
+    @Test
+    public void testRejectsSelfLoopAndCyclicGraph() {
+        Graph graph = new Graph(2, true);
+        graph.addEdge(0, 1, 1);
+        DynamicTopologicalOrder dynamic = new DynamicTopologicalOrder(graph);
+        assertFalse(dynamic.addEdge(1, 1));
+
+        graph.addEdge(1, 0, 1);
+        assertThrows(IllegalArgumentException.class, () -> new DynamicTopologicalOrder(graph));
+    }
+
+    @Test
+    public void testRandomInsertionsKeepValidOrder() {
+        Random random = new Random(17);
+        int n = 300;
+        DynamicTopologicalOrder dynamic = new DynamicTopologicalOrder(new Graph(n, true));
+        List<int[]> accepted = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (dynamic.addEdge(u, v)) {
+                accepted.add(new int[]{u, v});
+            }
+        }
+
+        int[] pos = dynamic.positions();
+        int[] order = dynamic.order();
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, pos[order[i]]);
+        }
+        for (int[] edge : accepted) {
+            assertTrue(pos[edge[0]] < pos[edge[1]]);
+        }
+
+        // Every accepted edge set must still be acyclic
+        Graph rebuilt = new Graph(n, true);
+        for (int[] edge : accepted) rebuilt.addEdge(edge[0], edge[1], 1);
+        assertEquals(n, new TopologicalSort(rebuilt).sort().size());
+    }
+}
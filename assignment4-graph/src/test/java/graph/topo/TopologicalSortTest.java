@@ -125,5 +125,84 @@ public class TopologicalSortTest {
         assertTrue(metrics.pops > 0);
         assertTrue(metrics.getElapsedTime() > 0);
     }
+    
+    @Test
+    public void testDFSIntoArrayReusesWorkspace() {
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 2, 1);
+        graph.addEdge(1, 2, 1);
+        graph.addEdge(2, 3, 1);
+        graph.addEdge(4, 3, 1);
+        
+        TopologicalSort topo = new TopologicalSort(graph);
+        List<Integer> expected = topo.sortDFS();
+        int[] order = new int[5];
+        for (int run = 0; run < 2; run++) {
+            assertTrue(topo.sortDFS(order));
+            for (int i = 0; i < 5; i++) {
+                assertEquals(expected.get(i), order[i]);
+            }
+        }
+    }
+    
+    @Test
+    public void testDFSLongChain() {
+        int n = 200_000;
+        Graph graph = new Graph(n, true);
+        for (int i = n - 1; i > 0; i--) {
+            graph.addEdge(i, i - 1, 1);
+        }
+        
+        TopologicalSort topo = new TopologicalSort(graph);
+        List<Integer> order = topo.sortDFS();
+        
+        assertEquals(n, order.size());
+        assertEquals(n - 1, order.get(0));
+        assertEquals(0, order.get(n - 1));
+        
+        graph.addEdge(0, n - 1, 1);
+        assertFalse(new TopologicalSort(graph).sortDFS(new int[n]));
+    }
+    
+    @Test
+    public void testSortByLevels() {
+        // Diamond plus a separate root: levels {0, 4}, {1, 2}, {3}
+        Graph graph = new Graph(5, true);
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(0, 2, 1);
+        graph.addEdge(1, 3, 1);
+        graph.addEdge(2, 3, 1);
+        graph.addEdge(4, 2, 1);
+        
+        TopologicalSort.LevelOrder levels = new TopologicalSort(graph).sortByLevels();
+        
+        assertEquals(3, levels.levelCount());
+        assertArrayEquals(new int[]{0, 4, 1, 2, 3}, levels.order);
+        assertArrayEquals(new int[]{0, 1, 1, 2, 0}, levels.level);
+        assertEquals(2, levels.levelWidth(1));
+    }
+    
+    @Test
+    public void testSortByLevelsLargeAndCyclic() {
+        java.util.Random random = new java.util.Random(9);
+        int n = 20000;
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < 80000; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) graph.addEdge(Math.min(a, b), Math.max(a, b), 1);
+        }
+        
+        TopologicalSort.LevelOrder levels = new TopologicalSort(graph).sortByLevels();
+        assertEquals(n, levels.order.length);
+        for (int u = 0; u < n; u++) {
+            for (Graph.Edge edge : graph.getNeighbors(u)) {
+                assertTrue(levels.level[u] < levels.level[edge.to]);
+            }
+        }
+        
+        graph.addEdge(n - 1, 0, 1);
+        assertTrue(new TopologicalSort(graph).sortByLevels().isEmpty());
+    }
 }
 